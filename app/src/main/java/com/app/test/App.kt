@@ -8,6 +8,8 @@ import com.cretin.www.cretinautoupdatelibrary.utils.AppUpdateUtils
 import com.scwang.smart.refresh.footer.ClassicsFooter
 import com.scwang.smart.refresh.header.ClassicsHeader
 import com.scwang.smart.refresh.layout.SmartRefreshLayout
+import com.app.test.base.BaseRetrofit
+import com.app.test.data.network.service.ApiService
 import com.app.test.manager.PageManager.Companion.initActivities
 import pers.sweven.common.app.BaseApplication
 import pers.sweven.common.app.PageInit
@@ -45,6 +47,9 @@ class App : BaseApplication() {
         // 页面路由初始化
         initActivities(this)
 
+        // 后台线程提前解析接口
+        BaseRetrofit.warmUp(Constant.BASE_URL, ApiService::class.java)
+
         // 更新插件初始化配置
 
         // 更新插件初始化配置
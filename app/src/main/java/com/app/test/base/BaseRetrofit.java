@@ -1,10 +1,9 @@
 package com.app.test.base;
 
 import android.annotation.SuppressLint;
-import android.util.Log;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.JsonParseException;
 import com.app.test.App;
 import com.app.test.data.network.ApiException;
 import com.app.test.data.network.ExceptionEntity;
@@ -13,7 +12,6 @@ import com.app.test.data.network.HeaderInterceptor;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.io.File;
 import java.io.IOException;
 import java.security.SecureRandom;
 import java.security.cert.CertificateException;
@@ -28,16 +26,20 @@ import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 
+import io.reactivex.schedulers.Schedulers;
 import okhttp3.Cache;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 import okhttp3.internal.platform.Platform;
-import okhttp3.logging.HttpLoggingInterceptor;
+import pers.sweven.common.repository.OkHttpClientFactory;
+import pers.sweven.common.repository.RetrofitRegistry;
 import pers.sweven.common.repository.cookie.CookieJarImpl;
 import pers.sweven.common.repository.cookie.store.PersistentCookieStore;
 import pers.sweven.common.repository.interceptor.CacheInterceptor;
+import pers.sweven.common.repository.interceptor.LogInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
 
@@ -46,7 +48,8 @@ import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
  */
 public class BaseRetrofit {
     public static OkHttpClient client;
-    private static volatile Retrofit retrofit;
+    // 按 baseUrl 缓存的 Retrofit 与接口代理，共享 client
+    private static volatile RetrofitRegistry registry;
 
     /**
      * 配置网络请求头
@@ -59,43 +62,64 @@ public class BaseRetrofit {
         return parameters;
     }
 
+    /**
+     * 获取 baseUrl 对应的 Retrofit，不同的 baseUrl 各自缓存，共享同一个 client
+     */
     public static Retrofit getRetrofit(String baseUrl) {
-        if (retrofit == null) {
+        return getRegistry().retrofit(baseUrl);
+    }
+
+    /**
+     * 获取接口代理，同一 baseUrl 的同一接口只创建一次
+     */
+    public static <T> T getService(String baseUrl, Class<T> service) {
+        return getRegistry().service(baseUrl, service);
+    }
+
+    /**
+     * 启动时在后台线程提前创建客户端并解析接口，SSLContext、Cookie、Cache 等都不在调用线程上创建
+     */
+    public static void warmUp(final String baseUrl, final Class<?>... services) {
+        Schedulers.io().scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                getRegistry().warmUp(baseUrl, services);
+            }
+        });
+    }
+
+    public static RetrofitRegistry getRegistry() {
+        if (registry == null) {
             synchronized (BaseRetrofit.class) {
-                if (retrofit == null) {
-                    HttpLoggingInterceptor httpLoggingInterceptor = new HttpLoggingInterceptor(s -> {
-                        if (!s.matches("[\\s\\S\\d\\w]*")) {
-                            return;
-                        }
-                        Platform.get().log(s,Platform.INFO,null);
-                    });
-                    httpLoggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-                    File cacheFile = new File(App.application.getCacheDir(), "cache");
-                    Cache cache = new Cache(cacheFile, 1024 * 1024 * 50); //50Mb 缓存的大小
-
-                    client = new OkHttpClient
-                            .Builder()
+                if (registry == null) {
+                    LogInterceptor logInterceptor = new LogInterceptor.Builder(App.application)
+                            .logger(s -> Platform.get().log(s, Platform.INFO, null))
+                            .build();
+                    Cache cache = OkHttpClientFactory.cache(App.application);
+                    CacheInterceptor cacheInterceptor = new CacheInterceptor(App.application);
+
+                    // 从共享的根客户端派生，复用连接池与线程池
+                    client = OkHttpClientFactory.newBuilder()
                             .connectTimeout(60000, TimeUnit.MILLISECONDS)
                             .readTimeout(60000, TimeUnit.MILLISECONDS)
-                            .addInterceptor(httpLoggingInterceptor) //日志,所有的请求响应
-                            .addInterceptor(new CacheInterceptor(App.application))
+                            // 在日志拦截器之外处理错误码，日志拦截器先记录错误响应的内容
+                            .addInterceptor(new ExceptionInterceptor())
+                            .addInterceptor(logInterceptor) //日志,所有的请求响应
+                            .addInterceptor(cacheInterceptor) //按 @CachePolicy 读写缓存,无网络时只读缓存
                             .addInterceptor(new HeaderInterceptor(getRequestHeader()))
                             //不加以下两行代码,https请求不到自签名的服务器
                             .sslSocketFactory(createSSLSocketFactory(), new TrustAllCerts())//创建一个证书对象
                             .hostnameVerifier(new TrustAllHostnameVerifier())//校验名称,这个对象就是信任所有的主机,也就是信任所有https的请求
                             .cache(cache)  //添加缓存
+                            .addNetworkInterceptor(cacheInterceptor.networkInterceptor())
                             .connectTimeout(15, TimeUnit.SECONDS)//连接超时时间
                             .readTimeout(15, TimeUnit.SECONDS)//读取超时时间
                             .writeTimeout(15, TimeUnit.SECONDS)//写入超时时间
                             .retryOnConnectionFailure(true)//连接不上是否重连,false不重连
                             .cookieJar(new CookieJarImpl(new PersistentCookieStore(App.application)))
-                            .addInterceptor(new ExceptionInterceptor())
                             .build();
 
-                    // 获取retrofit的实例
-                    retrofit = new Retrofit
-                            .Builder()
-                            .baseUrl(baseUrl) //baseUrl配置
+                    registry = new RetrofitRegistry.Builder()
                             .client(client)
                             .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
                             .addConverterFactory(GsonConverterBodyFactory.create())
@@ -103,7 +127,7 @@ public class BaseRetrofit {
                 }
             }
         }
-        return retrofit;
+        return registry;
     }
 
     /**
@@ -129,6 +153,7 @@ public class BaseRetrofit {
      * 拦截处理器，建议使用ApiException
      */
     public static class ExceptionInterceptor implements Interceptor {
+        private static final Gson GSON = new Gson();
 
         @NotNull
         @Override
@@ -140,12 +165,18 @@ public class BaseRetrofit {
             if (code == 200) {
                 return response;
             } else if (code == 220 || code == 215 || code == 216) {
-                String content = new String(response.body().bytes());
-                Log.i("okhttp.OkHttpClient", content + "/n <-- END HTTP ERROR");
-                ExceptionEntity entity;
-                try {
-                    entity = new Gson().fromJson(content, ExceptionEntity.class);
-                } catch (JsonSyntaxException ignore) {
+                ExceptionEntity entity = null;
+                ResponseBody body = response.body();
+                if (body != null) {
+                    // 直接从流中解析，不复制为字符串；错误内容已由内层的日志拦截器记录
+                    try {
+                        entity = GSON.fromJson(body.charStream(), ExceptionEntity.class);
+                    } catch (JsonParseException ignore) {
+                    } finally {
+                        body.close();
+                    }
+                }
+                if (entity == null) {
                     entity = new ExceptionEntity();
                     entity.setMessage(response.message());
                 }
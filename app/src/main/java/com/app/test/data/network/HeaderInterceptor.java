@@ -1,7 +1,5 @@
 package com.app.test.data.network;
 
-import android.text.TextUtils;
-
 import com.app.test.data.local.LocalManager;
 
 import java.io.IOException;
@@ -46,14 +44,7 @@ public class HeaderInterceptor implements Interceptor {
         }
         requestBuilder.addHeader("path", path);
         Request request = requestBuilder.build();
-        Response.Builder responseBuilder = chain.proceed(request).newBuilder();
-
-        if (!TextUtils.isEmpty(request.cacheControl().toString())) {
-            responseBuilder
-                    .removeHeader("Pragma")
-                    .removeHeader("Cache-Control")
-                    .header("Cache-Control", "public, max-age=" + request.cacheControl().maxAgeSeconds());
-        }
-        return responseBuilder.build();
+        // 响应的缓存头由 CacheInterceptor 按 @CachePolicy 处理
+        return chain.proceed(request);
     }
 }
\ No newline at end of file
@@ -10,12 +10,7 @@ import com.app.test.data.network.service.ApiService;
  * Email: sweventears@163.com
  */
 public class RetrofitUtils {
-    private static ApiService apiService;
-
     public static ApiService getApiService() {
-        if (apiService == null) {
-            apiService = BaseRetrofit.getRetrofit(Constant.BASE_URL).create(ApiService.class);
-        }
-        return apiService;
+        return BaseRetrofit.getService(Constant.BASE_URL, ApiService.class);
     }
 }
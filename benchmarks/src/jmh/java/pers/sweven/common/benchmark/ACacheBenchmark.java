@@ -0,0 +1,97 @@
+package pers.sweven.common.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import pers.sweven.common.utils.cache.ACache;
+
+/**
+ * ACache 读写：文件存储、日志存储，以及开启内存一级缓存后的读取
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ACacheBenchmark {
+    private static final int KEY_COUNT = 256;
+
+    @Param({"file", "journal", "memory"})
+    public String store;
+
+    @Param({"128", "16384"})
+    public int valueSize;
+
+    private File dir;
+    private ACache cache;
+    private String[] keys;
+    private byte[] value;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("acache-bench").toFile();
+        if ("journal".equals(store)) {
+            cache = ACache.getJournal(dir, 50 * 1024 * 1024, Integer.MAX_VALUE);
+        } else {
+            cache = ACache.get(dir, 50 * 1024 * 1024, Integer.MAX_VALUE);
+            if ("memory".equals(store)) {
+                cache.enableMemoryCache(8 * 1024 * 1024);
+            }
+        }
+        value = new byte[valueSize];
+        new Random(42).nextBytes(value);
+        keys = new String[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = "key-" + i;
+            cache.put(keys[i], value);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cache.clear();
+        delete(dir);
+    }
+
+    @Benchmark
+    public void put() {
+        cache.put(nextKey(), value);
+    }
+
+    @Benchmark
+    public byte[] get() {
+        return cache.getAsBinary(nextKey());
+    }
+
+    @Benchmark
+    public String getMissing() {
+        return cache.getAsString("missing-" + (index++ & (KEY_COUNT - 1)));
+    }
+
+    private String nextKey() {
+        return keys[index++ & (KEY_COUNT - 1)];
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : Arrays.asList(children)) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,49 @@
+package pers.sweven.common.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import android.graphics.Bitmap;
+import pers.sweven.common.utils.BlurFastHelper;
+
+/**
+ * BlurFastHelper.doBlur()：纯 Java 的 Stack Blur，耗时只与像素数和半径有关
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BlurBenchmark {
+
+    @Param({"256", "1080"})
+    public int size;
+
+    @Param({"8", "25"})
+    public int radius;
+
+    private Bitmap bitmap;
+
+    @Setup
+    public void setUp() {
+        bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        int[] pixels = new int[size * size];
+        Random random = new Random(42);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0xFFFFFF);
+        }
+        bitmap.setPixels(pixels, 0, size, 0, 0, size, size);
+    }
+
+    @Benchmark
+    public Bitmap doBlur() {
+        return BlurFastHelper.doBlur(bitmap, radius, false);
+    }
+}
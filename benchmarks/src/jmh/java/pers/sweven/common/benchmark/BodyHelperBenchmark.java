@@ -0,0 +1,79 @@
+package pers.sweven.common.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonObject;
+
+import okio.Buffer;
+
+import pers.sweven.common.repository.entity.request.BodyHelper;
+
+/**
+ * BodyHelper.body()：把参数表转换为 JsonObject，以及流式模式直接写入 Buffer；
+ * list 系列为包含 1000 个同类型元素的列表参数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BodyHelperBenchmark {
+    private BodyHelper helper;
+    private BodyHelper listHelper;
+
+    @Setup
+    public void setUp() {
+        HashMap<String, Object> map = new HashMap<>();
+        map.put("page", 1);
+        map.put("page_size", 20);
+        map.put("keyword", "kotlin");
+        map.put("user_id", 10086L);
+        map.put("vip", true);
+        map.put("level", 'A');
+        map.put("score", 98.5);
+        map.put("remark", null);
+        helper = new BodyHelper(map);
+
+        List<Long> ids = new ArrayList<>();
+        for (long i = 0; i < 1000; i++) {
+            ids.add(i);
+        }
+        HashMap<String, Object> listMap = new HashMap<>();
+        listMap.put("ids", ids);
+        listHelper = new BodyHelper(listMap);
+    }
+
+    @Benchmark
+    public JsonObject body() {
+        return helper.body(null);
+    }
+
+    @Benchmark
+    public String bodyToString() {
+        return helper.body(null).toString();
+    }
+
+    @Benchmark
+    public Buffer buffer() {
+        return helper.buffer(null);
+    }
+
+    @Benchmark
+    public JsonObject listBody() {
+        return listHelper.body(null);
+    }
+
+    @Benchmark
+    public Buffer listBuffer() {
+        return listHelper.buffer(null);
+    }
+}
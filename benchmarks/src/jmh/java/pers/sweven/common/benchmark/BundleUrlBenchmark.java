@@ -0,0 +1,47 @@
+package pers.sweven.common.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import android.os.Bundle;
+import pers.sweven.common.app.PageFactory;
+
+/**
+ * PageFactory.BundleUrl.inject()：把跳转地址的查询参数解析到 Bundle；
+ * 同一地址的解析结果会被缓存，inject 测量命中缓存的情况，injectUncached 每次使用不同的地址
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BundleUrlBenchmark {
+
+    @Param({
+            "/user/profile?id=10086&name=sweven&vip=true&score=98.5",
+            "/goods/list?ids[]=1&ids[]=2&ids[]=3&tags=a,b,c&page=1",
+            "/order/detail?id=1&extra={\"from\":\"push\",\"count\":3}&items=[1,2,3]",
+    })
+    public String url;
+
+    private long counter;
+
+    @Benchmark
+    public Bundle inject() {
+        Bundle bundle = new Bundle();
+        new PageFactory.BundleUrl(url, bundle).inject();
+        return bundle;
+    }
+
+    @Benchmark
+    public Bundle injectUncached() {
+        Bundle bundle = new Bundle();
+        new PageFactory.BundleUrl(url + "&n=" + counter++, bundle).inject();
+        return bundle;
+    }
+}
@@ -0,0 +1,58 @@
+package pers.sweven.common.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import pers.sweven.common.utils.money.Currency;
+
+/**
+ * Currency 的解析与四则运算
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CurrencyBenchmark {
+    private final Currency a = Currency.from(1234.56, "CNY");
+    private final Currency b = Currency.from(78.9, "CNY");
+
+    @Benchmark
+    public Currency fromDouble() {
+        return Currency.from(1234.56, "CNY");
+    }
+
+    @Benchmark
+    public Currency fromString() {
+        return Currency.from("￥1234.56", "CNY");
+    }
+
+    @Benchmark
+    public Currency plus() {
+        return a.plus(b);
+    }
+
+    @Benchmark
+    public Currency minus() {
+        return a.minus(b);
+    }
+
+    @Benchmark
+    public Currency times() {
+        return a.times(3);
+    }
+
+    @Benchmark
+    public Currency div() {
+        return a.div(3);
+    }
+
+    @Benchmark
+    public String format() {
+        return a.toString();
+    }
+}
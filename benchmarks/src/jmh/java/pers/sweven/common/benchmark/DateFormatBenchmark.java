@@ -0,0 +1,47 @@
+package pers.sweven.common.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import pers.sweven.common.utils.DateFormatUtils;
+
+/**
+ * DateFormatUtils 的字符串解析与格式化
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateFormatBenchmark {
+    private static final DateFormatUtils UTILS = DateFormatUtils.INSTANCE;
+
+    private final LocalDateTime now = LocalDateTime.of(2024, 12, 20, 11, 47, 30);
+
+    @Benchmark
+    public LocalDateTime parseLocalDateTime() {
+        return UTILS.formatLocalDateTime("2024-12-20 11:47:30", DateFormatUtils.DATE_FORMAT_19);
+    }
+
+    @Benchmark
+    public LocalDate parseLocalDate() {
+        return UTILS.formatLocalDate("2024-12-20", DateFormatUtils.DATE_FORMAT_10);
+    }
+
+    @Benchmark
+    public Date parseDate() {
+        return UTILS.formatDate("2024-12-20 11:47:30", DateFormatUtils.DATE_FORMAT_19);
+    }
+
+    @Benchmark
+    public String formatLocalDateTime() {
+        return UTILS.formatString(now, DateFormatUtils.DATE_FORMAT_19);
+    }
+}
@@ -0,0 +1,48 @@
+package pers.sweven.common.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 反射收集请求参数：BaseBody.toBody() 与 BaseRequest.toMap()
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestBenchmark {
+    private final PageBody pageBody = new PageBody();
+    private final SearchBody searchBody = new SearchBody();
+    private final SearchRequest searchRequest = new SearchRequest();
+
+    @Benchmark
+    public HashMap<String, Object> toBodySimple() {
+        return pageBody.toBody();
+    }
+
+    @Benchmark
+    public HashMap<String, Object> toBodyNested() {
+        return searchBody.toBody();
+    }
+
+    @Benchmark
+    public HashMap<String, String> toStringBody() {
+        return searchBody.toStringBody();
+    }
+
+    @Benchmark
+    public HashMap<String, String> toMap() {
+        return searchRequest.toMap();
+    }
+
+    @Benchmark
+    public HashMap<String, String> toMapWithSuper() {
+        return searchRequest.toMap(true);
+    }
+}
@@ -0,0 +1,47 @@
+package pers.sweven.common.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import pers.sweven.common.app.RouteTable;
+
+/**
+ * RouteTable.match()：在约 500 条路由中匹配固定路径、参数路径和通配路径
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RouteTableBenchmark {
+
+    @Param({
+            "/module250/page",
+            "/module250/10086/detail",
+            "/web/module250/a/b/c",
+    })
+    public String path;
+
+    private RouteTable table;
+
+    @Setup
+    public void setUp() {
+        table = new RouteTable();
+        for (int i = 0; i < 500; i++) {
+            table.add("/module" + i + "/page", Object.class);
+            table.add("/module" + i + "/:id/detail", String.class);
+        }
+        table.add("/web/*url", Integer.class);
+    }
+
+    @Benchmark
+    public RouteTable.Match match() {
+        return table.match(path);
+    }
+}
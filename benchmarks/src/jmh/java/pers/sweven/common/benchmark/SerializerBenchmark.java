@@ -0,0 +1,95 @@
+package pers.sweven.common.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.reflect.TypeToken;
+
+import pers.sweven.common.utils.cache.BinaryCacheSerializer;
+import pers.sweven.common.utils.cache.CacheSerializer;
+import pers.sweven.common.utils.cache.GsonCacheSerializer;
+import pers.sweven.common.utils.cache.JavaCacheSerializer;
+
+/**
+ * ACache 对象序列化方式对比：Java 序列化、Gson、二进制编码
+ * <p>
+ * payload 为 bean 时是 20 个数据类组成的列表，为 map 时是同样内容的 Map 列表，
+ * 后者是二进制编码不必回退到 Java 序列化的情况。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializerBenchmark {
+
+    @Param({"java", "gson", "binary"})
+    public String serializer;
+
+    @Param({"bean", "map"})
+    public String payload;
+
+    private CacheSerializer codec;
+    private Object value;
+    private Type type;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        if ("java".equals(serializer)) {
+            codec = JavaCacheSerializer.INSTANCE;
+        } else if ("gson".equals(serializer)) {
+            codec = GsonCacheSerializer.create();
+        } else {
+            codec = BinaryCacheSerializer.INSTANCE;
+        }
+        ArrayList<CacheUser> users = new ArrayList<>();
+        ArrayList<Map<String, Object>> maps = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            CacheUser user = new CacheUser(i, "user" + i, "user" + i + "@example.com",
+                    i % 2 == 0, i * 1.5, Arrays.asList("a", "b", "c"));
+            users.add(user);
+            Map<String, Object> map = new HashMap<>();
+            map.put("id", user.getId());
+            map.put("name", user.getName());
+            map.put("email", user.getEmail());
+            map.put("vip", user.getVip());
+            map.put("score", user.getScore());
+            map.put("tags", user.getTags());
+            maps.add(map);
+        }
+        if ("bean".equals(payload)) {
+            value = users;
+            type = new TypeToken<List<CacheUser>>() {
+            }.getType();
+        } else {
+            value = maps;
+            type = new TypeToken<List<Map<String, Object>>>() {
+            }.getType();
+        }
+        bytes = codec.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return codec.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return codec.deserialize(bytes, type);
+    }
+}
@@ -0,0 +1,78 @@
+package pers.sweven.common.benchmark
+
+import androidx.lifecycle.MutableLiveData
+import com.google.gson.annotations.SerializedName
+import pers.sweven.common.repository.entity.request.BaseBody
+import pers.sweven.common.repository.entity.request.BaseRequest
+import java.io.Serializable
+
+/**
+ * 基准测试使用的请求参数，字段数量与类型接近常见的列表查询接口
+ */
+open class PageBody : BaseBody() {
+    @BodyParam
+    var page: Int = 1
+
+    @BodyParam("page_size")
+    var pageSize: Int = 20
+
+    @BodyParam(noAdd = [""])
+    var keyword: String = "kotlin"
+}
+
+class SearchBody : PageBody() {
+    @BodyParam("user_id")
+    var userId: Long = 10086
+
+    @BodyParam
+    var status = MutableLiveData(1)
+
+    @BodyParam
+    var tags: List<String> = listOf("a", "b", "c")
+
+    @BodyParam(isAdd = false)
+    var ignored: String = "ignored"
+
+    @BodyParam
+    var filter: FilterBody = FilterBody()
+}
+
+class FilterBody : BaseBody() {
+    @BodyParam
+    var start: String = "2024-01-01"
+
+    @BodyParam
+    var end: String = "2024-12-31"
+}
+
+open class PageRequest : BaseRequest() {
+    @Param
+    var page: Int = 1
+
+    @Param("page_size")
+    var pageSize: Int = 20
+}
+
+class SearchRequest : PageRequest() {
+    @SerializedName("user_id")
+    var userId: Long = 10086
+
+    @Param(noAdd = [""])
+    var keyword: String = "kotlin"
+
+    var status = MutableLiveData(1)
+
+    var sort: String = "desc"
+}
+
+/**
+ * 缓存序列化对比使用的对象
+ */
+data class CacheUser(
+    var id: Long = 0,
+    var name: String = "",
+    var email: String = "",
+    var vip: Boolean = false,
+    var score: Double = 0.0,
+    var tags: List<String> = emptyList()
+) : Serializable
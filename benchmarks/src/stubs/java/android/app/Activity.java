@@ -0,0 +1,23 @@
+package android.app;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+
+/**
+ * JVM 基准测试用的桩代码
+ */
+public class Activity extends Context {
+
+    public void startActivityForResult(Intent intent, int requestCode) {
+        throw new UnsupportedOperationException("stub");
+    }
+
+    public void startActivity(Intent intent, Bundle options) {
+        throw new UnsupportedOperationException("stub");
+    }
+
+    public void overridePendingTransition(int enterAnim, int exitAnim) {
+        throw new UnsupportedOperationException("stub");
+    }
+}
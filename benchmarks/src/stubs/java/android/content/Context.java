@@ -0,0 +1,17 @@
+package android.content;
+
+import java.io.File;
+
+/**
+ * JVM 基准测试用的桩代码
+ */
+public class Context {
+
+    public File getCacheDir() {
+        return new File(System.getProperty("java.io.tmpdir"));
+    }
+
+    public void startActivity(Intent intent) {
+        throw new UnsupportedOperationException("stub");
+    }
+}
@@ -0,0 +1,45 @@
+package android.content;
+
+import android.net.Uri;
+import android.os.Bundle;
+
+/**
+ * JVM 基准测试用的桩代码
+ */
+public class Intent {
+    public static final int FLAG_ACTIVITY_NEW_TASK = 0x10000000;
+
+    private final Bundle extras = new Bundle();
+    private int flags;
+    private String action;
+    private Uri data;
+    private String type;
+
+    public Intent(Context packageContext, Class<?> cls) {
+    }
+
+    public Intent putExtras(Bundle extras) {
+        this.extras.putAll(extras);
+        return this;
+    }
+
+    public Intent addFlags(int flags) {
+        this.flags |= flags;
+        return this;
+    }
+
+    public Intent setAction(String action) {
+        this.action = action;
+        return this;
+    }
+
+    public Intent setDataAndType(Uri data, String type) {
+        this.data = data;
+        this.type = type;
+        return this;
+    }
+
+    public Intent addCategory(String category) {
+        return this;
+    }
+}
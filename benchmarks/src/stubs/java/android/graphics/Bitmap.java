@@ -0,0 +1,66 @@
+package android.graphics;
+
+import java.io.OutputStream;
+
+/**
+ * JVM 基准测试用的桩代码，像素保存在 int[] 中，只实现模糊等纯计算需要的方法
+ */
+public final class Bitmap {
+    private final int width;
+    private final int height;
+    private final Config config;
+    private final int[] pixels;
+
+    public enum Config {
+        RGB_565, ARGB_8888
+    }
+
+    public enum CompressFormat {
+        JPEG, PNG, WEBP
+    }
+
+    private Bitmap(int width, int height, Config config) {
+        this.width = width;
+        this.height = height;
+        this.config = config;
+        this.pixels = new int[width * height];
+    }
+
+    public static Bitmap createBitmap(int width, int height, Config config) {
+        return new Bitmap(width, height, config);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    public Bitmap copy(Config config, boolean isMutable) {
+        Bitmap copy = new Bitmap(width, height, config);
+        System.arraycopy(pixels, 0, copy.pixels, 0, pixels.length);
+        return copy;
+    }
+
+    public void getPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height) {
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(this.pixels, (y + row) * this.width + x, pixels, offset + row * stride, width);
+        }
+    }
+
+    public void setPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height) {
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(pixels, offset + row * stride, this.pixels, (y + row) * this.width + x, width);
+        }
+    }
+
+    public boolean compress(CompressFormat format, int quality, OutputStream stream) {
+        throw new UnsupportedOperationException("stub");
+    }
+}
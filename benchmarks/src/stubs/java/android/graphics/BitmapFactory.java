@@ -0,0 +1,11 @@
+package android.graphics;
+
+/**
+ * JVM 基准测试用的桩代码
+ */
+public class BitmapFactory {
+
+    public static Bitmap decodeByteArray(byte[] data, int offset, int length) {
+        throw new UnsupportedOperationException("stub");
+    }
+}
@@ -0,0 +1,10 @@
+package android.graphics;
+
+/**
+ * JVM 基准测试用的桩代码
+ */
+public class Canvas {
+
+    public Canvas(Bitmap bitmap) {
+    }
+}
@@ -0,0 +1,8 @@
+package android.graphics;
+
+/**
+ * JVM 基准测试用的桩代码
+ */
+public class PixelFormat {
+    public static final int OPAQUE = -1;
+}
@@ -0,0 +1,23 @@
+package android.graphics.drawable;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.PixelFormat;
+
+/**
+ * JVM 基准测试用的桩代码
+ */
+public class BitmapDrawable extends Drawable {
+
+    public BitmapDrawable(Bitmap bitmap) {
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.OPAQUE;
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+    }
+}
@@ -0,0 +1,24 @@
+package android.graphics.drawable;
+
+import android.graphics.Canvas;
+
+/**
+ * JVM 基准测试用的桩代码
+ */
+public abstract class Drawable {
+
+    public int getIntrinsicWidth() {
+        return -1;
+    }
+
+    public int getIntrinsicHeight() {
+        return -1;
+    }
+
+    public abstract int getOpacity();
+
+    public void setBounds(int left, int top, int right, int bottom) {
+    }
+
+    public abstract void draw(Canvas canvas);
+}
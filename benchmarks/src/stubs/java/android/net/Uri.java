@@ -0,0 +1,7 @@
+package android.net;
+
+/**
+ * JVM 基准测试用的桩代码
+ */
+public abstract class Uri {
+}
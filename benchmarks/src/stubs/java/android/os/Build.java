@@ -0,0 +1,15 @@
+package android.os;
+
+/**
+ * JVM 基准测试用的桩代码，版本号固定为 minSdkVersion
+ */
+public class Build {
+
+    public static class VERSION {
+        public static final int SDK_INT = 22;
+    }
+
+    public static class VERSION_CODES {
+        public static final int N = 24;
+    }
+}
@@ -0,0 +1,97 @@
+package android.os;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * JVM 基准测试用的桩代码，以 HashMap 保存数据，与 Bundle 内部的 ArrayMap 开销相近
+ */
+public final class Bundle {
+    private final HashMap<String, Object> map = new HashMap<>();
+
+    public void putAll(Bundle bundle) {
+        map.putAll(bundle.map);
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public boolean containsKey(String key) {
+        return map.containsKey(key);
+    }
+
+    public Object get(String key) {
+        return map.get(key);
+    }
+
+    public void putBoolean(String key, boolean value) {
+        map.put(key, value);
+    }
+
+    public void putInt(String key, int value) {
+        map.put(key, value);
+    }
+
+    public void putLong(String key, long value) {
+        map.put(key, value);
+    }
+
+    public void putFloat(String key, float value) {
+        map.put(key, value);
+    }
+
+    public void putDouble(String key, double value) {
+        map.put(key, value);
+    }
+
+    public void putString(String key, String value) {
+        map.put(key, value);
+    }
+
+    public void putBundle(String key, Bundle value) {
+        map.put(key, value);
+    }
+
+    public void putParcelable(String key, Parcelable value) {
+        map.put(key, value);
+    }
+
+    public void putSerializable(String key, Serializable value) {
+        map.put(key, value);
+    }
+
+    public void putByteArray(String key, byte[] value) {
+        map.put(key, value);
+    }
+
+    public void putIntArray(String key, int[] value) {
+        map.put(key, value);
+    }
+
+    public void putLongArray(String key, long[] value) {
+        map.put(key, value);
+    }
+
+    public void putFloatArray(String key, float[] value) {
+        map.put(key, value);
+    }
+
+    public void putDoubleArray(String key, double[] value) {
+        map.put(key, value);
+    }
+
+    public void putStringArray(String key, String[] value) {
+        map.put(key, value);
+    }
+
+    public void putStringArrayList(String key, ArrayList<String> value) {
+        map.put(key, value);
+    }
+
+    @Override
+    public String toString() {
+        return "Bundle" + map;
+    }
+}
@@ -0,0 +1,7 @@
+package android.os;
+
+/**
+ * JVM 基准测试用的桩代码
+ */
+public interface Parcelable {
+}
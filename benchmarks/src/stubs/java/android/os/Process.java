@@ -0,0 +1,11 @@
+package android.os;
+
+/**
+ * JVM 基准测试用的桩代码
+ */
+public class Process {
+
+    public static int myPid() {
+        return 1;
+    }
+}
@@ -0,0 +1,11 @@
+package android.text;
+
+/**
+ * JVM 基准测试用的桩代码
+ */
+public class TextUtils {
+
+    public static boolean isEmpty(CharSequence str) {
+        return str == null || str.length() == 0;
+    }
+}
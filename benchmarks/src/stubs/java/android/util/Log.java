@@ -0,0 +1,32 @@
+package android.util;
+
+/**
+ * JVM 基准测试用的桩代码，日志输出到标准错误
+ */
+public final class Log {
+
+    public static int d(String tag, String msg) {
+        return println(tag, msg);
+    }
+
+    public static int i(String tag, String msg) {
+        return println(tag, msg);
+    }
+
+    public static int w(String tag, String msg) {
+        return println(tag, msg);
+    }
+
+    public static int e(String tag, String msg) {
+        return println(tag, msg);
+    }
+
+    public static int e(String tag, String msg, Throwable tr) {
+        return println(tag, msg + '\n' + tr);
+    }
+
+    private static int println(String tag, String msg) {
+        System.err.println(tag + ": " + msg);
+        return 0;
+    }
+}
@@ -0,0 +1,15 @@
+package androidx.activity.result;
+
+import androidx.core.app.ActivityOptionsCompat;
+
+/**
+ * JVM 基准测试用的桩代码
+ */
+public abstract class ActivityResultLauncher<I> {
+
+    public void launch(I input) {
+        launch(input, null);
+    }
+
+    public abstract void launch(I input, ActivityOptionsCompat options);
+}
@@ -0,0 +1,18 @@
+package androidx.core.app;
+
+import android.content.Context;
+import android.os.Bundle;
+
+/**
+ * JVM 基准测试用的桩代码
+ */
+public class ActivityOptionsCompat {
+
+    public static ActivityOptionsCompat makeCustomAnimation(Context context, int enterResId, int exitResId) {
+        return new ActivityOptionsCompat();
+    }
+
+    public Bundle toBundle() {
+        return null;
+    }
+}
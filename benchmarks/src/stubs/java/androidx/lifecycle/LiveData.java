@@ -0,0 +1,27 @@
+package androidx.lifecycle;
+
+/**
+ * JVM 基准测试用的桩代码
+ */
+public abstract class LiveData<T> {
+    private volatile T value;
+
+    public LiveData() {
+    }
+
+    public LiveData(T value) {
+        this.value = value;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    protected void setValue(T value) {
+        this.value = value;
+    }
+
+    protected void postValue(T value) {
+        this.value = value;
+    }
+}
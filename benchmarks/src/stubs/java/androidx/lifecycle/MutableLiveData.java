@@ -0,0 +1,24 @@
+package androidx.lifecycle;
+
+/**
+ * JVM 基准测试用的桩代码
+ */
+public class MutableLiveData<T> extends LiveData<T> {
+
+    public MutableLiveData() {
+    }
+
+    public MutableLiveData(T value) {
+        super(value);
+    }
+
+    @Override
+    public void setValue(T value) {
+        super.setValue(value);
+    }
+
+    @Override
+    public void postValue(T value) {
+        super.postValue(value);
+    }
+}
@@ -0,0 +1,384 @@
+package pers.sweven.common.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * 为 BaseRequest / BaseBody 的子类生成字段表（GeneratedFields 的实现）
+ * <p>
+ * 生成的类与被处理的类在同一个包中，类名为 {@code 类名_Fields}（嵌套类以 {@code _} 连接），
+ * 只包含该类自身声明的字段，按以下规则解析：
+ * <ul>
+ * <li>BaseRequest：所有非静态字段，键名依次取 {@code @Param.value}、{@code @SerializedName.value}、字段名；
+ * {@code @Param(isAdd = false)} 的字段不生成</li>
+ * <li>BaseBody：带 {@code @BodyParam} 且 isAdd 为 true 的字段，键名取 {@code @BodyParam.value} 或字段名</li>
+ * </ul>
+ * 字段通过 getter（Kotlin 属性）或非 private 字段读取，Condition / ValueConverter 在编译期确定为
+ * {@code new 类名()} 或 Kotlin object 的 {@code INSTANCE}。
+ * 有任何一个字段无法在生成代码中访问时不生成该类，运行时回退到反射。
+ */
+public class FieldsProcessor extends AbstractProcessor {
+    private static final String PACKAGE = "pers.sweven.common.repository.entity.request";
+    private static final String BASE_REQUEST = PACKAGE + ".BaseRequest";
+    private static final String BASE_BODY = PACKAGE + ".BaseBody";
+    private static final String PARAM = BASE_REQUEST + ".Param";
+    private static final String BODY_PARAM = BASE_BODY + ".BodyParam";
+    private static final String SERIALIZED_NAME = "com.google.gson.annotations.SerializedName";
+    private static final String DEFAULT_CONDITION = PACKAGE + ".DefaultCondition";
+    private static final String DEFAULT_CONVERTER = PACKAGE + ".DefaultConverter";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        // BaseRequest 的字段不一定带注解，需要检查所有类
+        return Collections.singleton("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement request = processingEnv.getElementUtils().getTypeElement(BASE_REQUEST);
+        TypeElement body = processingEnv.getElementUtils().getTypeElement(BASE_BODY);
+        if (request == null && body == null) {
+            return false;
+        }
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            visit(type, request, body);
+        }
+        // 不占用注解，其他处理器仍可处理
+        return false;
+    }
+
+    private void visit(TypeElement type, TypeElement request, TypeElement body) {
+        if (type.getKind() == ElementKind.CLASS) {
+            if (isSubclass(type, request)) {
+                generate(type, false);
+            } else if (isSubclass(type, body)) {
+                generate(type, true);
+            }
+        }
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            visit(nested, request, body);
+        }
+    }
+
+    private boolean isSubclass(TypeElement type, TypeElement base) {
+        if (base == null || type.equals(base)) {
+            return false;
+        }
+        return processingEnv.getTypeUtils().isSubtype(
+                processingEnv.getTypeUtils().erasure(type.asType()),
+                processingEnv.getTypeUtils().erasure(base.asType()));
+    }
+
+    private void generate(TypeElement type, boolean body) {
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                return;
+            }
+        }
+        List<String> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            String code;
+            try {
+                code = body ? bodyField(type, field) : requestField(type, field);
+            } catch (UnsupportedFieldException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        type.getQualifiedName() + "." + field.getSimpleName() + ": " + e.getMessage()
+                                + ", falls back to reflection", field);
+                return;
+            }
+            if (code != null) {
+                fields.add(code);
+            }
+        }
+        write(type, fields);
+    }
+
+    /**
+     * @return 字段的构造代码，不需要加入参数时返回 null
+     */
+    private String requestField(TypeElement type, VariableElement field) throws UnsupportedFieldException {
+        AnnotationMirror param = annotation(field, PARAM);
+        String key = null;
+        String[] noAdd = new String[0];
+        String desc = "";
+        String converter = "null";
+        if (param != null) {
+            Map<String, Object> values = values(param);
+            if (!(Boolean) value(values, "isAdd", "isIncluded")) {
+                return null;
+            }
+            key = (String) value(values, "value", "paramValue");
+            noAdd = strings(value(values, "noAdd", "noAddValues"));
+            desc = (String) value(values, "desc", "description");
+            converter = instance((TypeMirror) value(values, "converter"), DEFAULT_CONVERTER);
+        }
+        if (key == null || key.isEmpty()) {
+            AnnotationMirror serializedName = annotation(field, SERIALIZED_NAME);
+            key = serializedName != null ? (String) values(serializedName).get("value") : null;
+        }
+        if (key == null) {
+            key = field.getSimpleName().toString();
+        }
+        return fieldCode(type, field, key, noAdd, desc, "null", converter);
+    }
+
+    /**
+     * @return 字段的构造代码，不需要加入参数时返回 null
+     */
+    private String bodyField(TypeElement type, VariableElement field) throws UnsupportedFieldException {
+        AnnotationMirror param = annotation(field, BODY_PARAM);
+        if (param == null) {
+            return null;
+        }
+        Map<String, Object> values = values(param);
+        if (!(Boolean) value(values, "isAdd", "isIncluded")) {
+            return null;
+        }
+        String key = (String) value(values, "value", "paramValue");
+        if (key.isEmpty()) {
+            key = field.getSimpleName().toString();
+        }
+        String[] noAdd = strings(value(values, "noAdd", "noAddValues"));
+        String desc = (String) value(values, "desc", "description");
+        String condition = instance((TypeMirror) value(values, "condition"), DEFAULT_CONDITION);
+        return fieldCode(type, field, key, noAdd, desc, condition, "null");
+    }
+
+    private String fieldCode(TypeElement type, VariableElement field, String key, String[] noAdd,
+                             String desc, String condition, String converter) throws UnsupportedFieldException {
+        String typeName = rawName(type);
+        StringBuilder noAddCode = new StringBuilder("new String[]{");
+        for (int i = 0; i < noAdd.length; i++) {
+            noAddCode.append(i == 0 ? "" : ", ").append(literal(noAdd[i]));
+        }
+        noAddCode.append('}');
+        return "                new ParamField<" + typeName + ">(" + literal(field.getSimpleName().toString())
+                + ", " + literal(key) + ", " + noAddCode + ", " + literal(desc) + ",\n"
+                + "                        " + condition + ", " + converter + ") {\n"
+                + "                    @Override\n"
+                + "                    public Object get(" + typeName + " target) {\n"
+                + "                        return target." + accessor(type, field) + ";\n"
+                + "                    }\n"
+                + "                }";
+    }
+
+    /**
+     * 读取字段的表达式：非 private 字段直接访问，否则使用 Kotlin 属性或 JavaBean 的 getter
+     */
+    private String accessor(TypeElement type, VariableElement field) throws UnsupportedFieldException {
+        String name = field.getSimpleName().toString();
+        if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+            return name;
+        }
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        boolean isGetter = name.startsWith("is") && name.length() > 2 && Character.isUpperCase(name.charAt(2));
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.PRIVATE)
+                    || method.getModifiers().contains(Modifier.STATIC)
+                    || !method.getParameters().isEmpty()
+                    || method.getReturnType().getKind() == TypeKind.VOID) {
+                continue;
+            }
+            String methodName = method.getSimpleName().toString();
+            if (methodName.equals("get" + capitalized)
+                    || (isGetter && methodName.equals(name))
+                    || (methodName.equals("is" + capitalized) && method.getReturnType().getKind() == TypeKind.BOOLEAN)) {
+                return methodName + "()";
+            }
+        }
+        throw new UnsupportedFieldException("no accessible getter");
+    }
+
+    /**
+     * Condition / ValueConverter 的实例表达式
+     */
+    private String instance(TypeMirror mirror, String defaultType) throws UnsupportedFieldException {
+        if (!(mirror instanceof DeclaredType)) {
+            throw new UnsupportedFieldException("unresolved class " + mirror);
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) mirror).asElement();
+        String name = element.getQualifiedName().toString();
+        if (name.equals(defaultType)) {
+            return "null";
+        }
+        for (VariableElement field : ElementFilter.fieldsIn(element.getEnclosedElements())) {
+            if (field.getSimpleName().contentEquals("INSTANCE")
+                    && field.getModifiers().contains(Modifier.STATIC)
+                    && field.getModifiers().contains(Modifier.PUBLIC)) {
+                return name + ".INSTANCE";
+            }
+        }
+        if (element.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new UnsupportedFieldException(name + " is abstract");
+        }
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(element.getEnclosedElements());
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return "new " + name + "()";
+            }
+        }
+        throw new UnsupportedFieldException(name + " has no public no-arg constructor");
+    }
+
+    private void write(TypeElement type, List<String> fields) {
+        String packageName = packageOf(type).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_') + "_Fields";
+        String typeName = rawName(type);
+
+        StringBuilder code = new StringBuilder();
+        code.append("// Generated by common-compiler. Do not edit.\n");
+        if (!packageName.isEmpty()) {
+            code.append("package ").append(packageName).append(";\n\n");
+        }
+        code.append("import java.util.Arrays;\n")
+                .append("import java.util.List;\n\n")
+                .append("import ").append(PACKAGE).append(".GeneratedFields;\n")
+                .append("import ").append(PACKAGE).append(".ParamField;\n\n")
+                .append("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n")
+                .append("public final class ").append(simpleName)
+                .append(" implements GeneratedFields<").append(typeName).append("> {\n\n")
+                .append("    @Override\n")
+                .append("    public List<ParamField<").append(typeName).append(">> fields() {\n")
+                .append("        return Arrays.<ParamField<").append(typeName).append(">>asList(");
+        for (int i = 0; i < fields.size(); i++) {
+            code.append(i == 0 ? "\n" : ",\n").append(fields.get(i));
+        }
+        code.append(");\n")
+                .append("    }\n")
+                .append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(code.toString());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write " + qualifiedName + ": " + e.getMessage(), type);
+        }
+    }
+
+    private String rawName(TypeElement type) {
+        return type.getQualifiedName().toString();
+    }
+
+    private static PackageElement packageOf(Element element) {
+        while (!(element instanceof PackageElement)) {
+            element = element.getEnclosingElement();
+        }
+        return (PackageElement) element;
+    }
+
+    private static AnnotationMirror annotation(Element element, String type) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(type)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Map<String, Object> values(AnnotationMirror mirror) {
+        Map<String, Object> values = new HashMap<>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            values.put(entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+        }
+        return values;
+    }
+
+    /**
+     * Kotlin 注解的属性可能通过 @get:JvmName 改名，依次尝试各个名字
+     */
+    private static Object value(Map<String, Object> values, String... names) throws UnsupportedFieldException {
+        for (String name : names) {
+            if (values.containsKey(name)) {
+                return values.get(name);
+            }
+        }
+        throw new UnsupportedFieldException("missing annotation value " + names[0]);
+    }
+
+    private static String[] strings(Object value) {
+        List<?> list = (List<?>) value;
+        String[] strings = new String[list.size()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = (String) ((AnnotationValue) list.get(i)).getValue();
+        }
+        return strings;
+    }
+
+    private static String literal(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private static final class UnsupportedFieldException extends Exception {
+        UnsupportedFieldException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package pers.sweven.common.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * 为 {@code @Route} 标注的 Activity 生成 PageFactory 的路由注册表
+ * <p>
+ * 每个模块生成一个 {@code pers.sweven.common.app.routes.RouteIndex_模块名}，模块名通过 kapt 参数
+ * {@code ROUTE_MODULE_NAME} 指定，默认为 app。路由按路径的第一段分组，每个分组生成一个
+ * {@code RouteGroup_模块名_分组名}，RouteIndex 只注册分组的加载器，分组内的路由在第一次访问该分组时才注册；
+ * 第一段是参数或通配段的路由无法按分组查找，直接在 RouteIndex 中注册。
+ * <p>
+ * 编译时检查：标注的类必须是 public、非 abstract 的 Activity 子类；路径必须以 "/" 开头且不为空，
+ * 通配段只能在末尾，参数段需要名称，同一位置的参数名必须一致；同一模块中不能有重复的路径
+ * （只有参数名不同的路径也视为重复）。
+ */
+public class RouteProcessor extends AbstractProcessor {
+    static final String OPTION_MODULE_NAME = "ROUTE_MODULE_NAME";
+    private static final String ROUTE = "pers.sweven.common.app.Route";
+    private static final String ROUTE_TABLE = "pers.sweven.common.app.RouteTable";
+    private static final String ROUTES_PACKAGE = "pers.sweven.common.app.routes";
+    private static final String ACTIVITY = "android.app.Activity";
+
+    // 规范化后的路径（参数段替换为 ":"）到类名，用于检查重复
+    private final Map<String, String> patterns = new HashMap<>();
+    // 规范化后的参数段前缀到参数名，用于检查同一位置的参数名
+    private final Map<String, String> paramNames = new HashMap<>();
+    // 分组名到分组内的路由（路径到类名），TreeMap 保证生成的代码顺序稳定
+    private final Map<String, Map<String, String>> groups = new TreeMap<>();
+    // 不能分组的路由
+    private final Map<String, String> ungrouped = new TreeMap<>();
+    private final List<Element> origins = new ArrayList<>();
+    private boolean failed;
+    private boolean written;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(ROUTE);
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(OPTION_MODULE_NAME);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement route = processingEnv.getElementUtils().getTypeElement(ROUTE);
+        if (route != null) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(route)) {
+                if (written) {
+                    // 注册表已经生成，后续轮次中其他处理器生成的类无法再加入
+                    error("@Route on generated classes is not supported", element);
+                } else {
+                    collect(element);
+                }
+            }
+        }
+        // 在发现路由的轮次中生成，最后一轮生成的文件不会再被处理，javac 会给出警告
+        if (!written && !origins.isEmpty() && !failed) {
+            write();
+            written = true;
+        }
+        return false;
+    }
+
+    private void collect(Element element) {
+        if (element.getKind() != ElementKind.CLASS) {
+            error("@Route can only be used on classes", element);
+            return;
+        }
+        TypeElement type = (TypeElement) element;
+        String className = type.getQualifiedName().toString();
+        if (!type.getModifiers().contains(Modifier.PUBLIC) || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(className + " must be public and not abstract to be routed", element);
+            return;
+        }
+        for (Element e = type.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (!e.getModifiers().contains(Modifier.PUBLIC)) {
+                error(className + " must be accessible from " + ROUTES_PACKAGE, element);
+                return;
+            }
+        }
+        TypeElement activity = processingEnv.getElementUtils().getTypeElement(ACTIVITY);
+        if (activity != null && !isSubclass(type, activity)) {
+            error(className + " is not an Activity", element);
+            return;
+        }
+        String path = path(type);
+        if (path == null) {
+            error("@Route value is missing on " + className, element);
+            return;
+        }
+        List<String> segments = split(path);
+        if (!path.startsWith("/") || segments.isEmpty()) {
+            error("Route path must start with \"/\" and not be empty: \"" + path + "\"", element);
+            return;
+        }
+        StringBuilder pattern = new StringBuilder();
+        for (int i = 0; i < segments.size(); i++) {
+            String segment = segments.get(i);
+            if (segment.charAt(0) == '*') {
+                if (i != segments.size() - 1) {
+                    error("Wildcard must be the last segment: " + path, element);
+                    return;
+                }
+                pattern.append("/*");
+            } else if (segment.charAt(0) == ':') {
+                String name = segment.substring(1);
+                if (name.isEmpty()) {
+                    error("Parameter segment needs a name: " + path, element);
+                    return;
+                }
+                String existing = paramNames.get(pattern.toString());
+                if (existing != null && !existing.equals(name)) {
+                    error("Conflicting parameter :" + name + " with :" + existing + " in " + path, element);
+                    return;
+                }
+                paramNames.put(pattern.toString(), name);
+                pattern.append("/:");
+            } else {
+                pattern.append('/').append(segment);
+            }
+        }
+        String duplicate = patterns.put(pattern.toString(), className);
+        if (duplicate != null) {
+            error("Duplicate route " + path + " on " + className + " and " + duplicate, element);
+            return;
+        }
+
+        String first = segments.get(0);
+        char head = first.charAt(0);
+        if (head == ':' || head == '*') {
+            ungrouped.put(path, className);
+        } else {
+            Map<String, String> group = groups.get(first);
+            if (group == null) {
+                group = new TreeMap<>();
+                groups.put(first, group);
+            }
+            group.put(path, className);
+        }
+        origins.add(element);
+    }
+
+    private boolean isSubclass(TypeElement type, TypeElement base) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type.asType());
+        return processingEnv.getTypeUtils().isSubtype(erased, processingEnv.getTypeUtils().erasure(base.asType()));
+    }
+
+    private String path(TypeElement type) {
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            Element annotation = mirror.getAnnotationType().asElement();
+            if (((TypeElement) annotation).getQualifiedName().contentEquals(ROUTE)) {
+                for (Map.Entry<? extends Element, ? extends AnnotationValue> entry
+                        : mirror.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals("value")) {
+                        return entry.getValue().getValue().toString();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 与 RouteTable 相同，按 "/" 分段并忽略空段
+     */
+    private static List<String> split(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    private void write() {
+        String module = identifier(processingEnv.getOptions().get(OPTION_MODULE_NAME));
+        if (module.isEmpty()) {
+            module = "app";
+        }
+        Element[] elements = origins.toArray(new Element[0]);
+
+        StringBuilder index = header();
+        index.append("public final class RouteIndex_").append(module)
+                .append(" implements RouteTable.RouteGroup {\n\n")
+                .append("    @Override\n")
+                .append("    public void loadInto(RouteTable table) {\n");
+        Set<String> groupClasses = new HashSet<>();
+        for (Map.Entry<String, Map<String, String>> group : groups.entrySet()) {
+            String groupClass = "RouteGroup_" + module + "_" + identifier(group.getKey());
+            // 分组名只在特殊字符上不同时，转换后的类名可能重复
+            String unique = groupClass;
+            for (int i = 2; !groupClasses.add(unique); i++) {
+                unique = groupClass + i;
+            }
+            index.append("        table.addGroup(").append(literal(group.getKey()))
+                    .append(", new ").append(unique).append("());\n");
+            writeGroup(unique, group.getValue(), elements);
+        }
+        appendRoutes(index, ungrouped);
+        index.append("    }\n}\n");
+        writeSource("RouteIndex_" + module, index, elements);
+    }
+
+    private void writeGroup(String className, Map<String, String> routes, Element[] elements) {
+        StringBuilder code = header();
+        code.append("public final class ").append(className)
+                .append(" implements RouteTable.RouteGroup {\n\n")
+                .append("    @Override\n")
+                .append("    public void loadInto(RouteTable table) {\n");
+        appendRoutes(code, routes);
+        code.append("    }\n}\n");
+        writeSource(className, code, elements);
+    }
+
+    private StringBuilder header() {
+        return new StringBuilder()
+                .append("// Generated by common-compiler. Do not edit.\n")
+                .append("package ").append(ROUTES_PACKAGE).append(";\n\n")
+                .append("import ").append(ROUTE_TABLE).append(";\n\n");
+    }
+
+    private static void appendRoutes(StringBuilder code, Map<String, String> routes) {
+        for (Map.Entry<String, String> route : routes.entrySet()) {
+            code.append("        table.add(").append(literal(route.getKey())).append(", ")
+                    .append(route.getValue()).append(".class);\n");
+        }
+    }
+
+    private void writeSource(String simpleName, StringBuilder code, Element[] elements) {
+        String qualifiedName = ROUTES_PACKAGE + "." + simpleName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, elements);
+            try (Writer writer = file.openWriter()) {
+                writer.write(code.toString());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    private void error(String message, Element element) {
+        failed = true;
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * 把任意字符串转换为 Java 标识符的一部分
+     */
+    private static String identifier(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            builder.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+        return builder.toString();
+    }
+
+    private static String literal(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+        return builder.append('"').toString();
+    }
+}
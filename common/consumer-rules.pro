@@ -0,0 +1,14 @@
+# common-compiler 生成的字段表按 "类名_Fields" 加载，需要保留请求参数类的类名
+-keepnames class * extends pers.sweven.common.repository.entity.request.BaseRequest
+-keepnames class * extends pers.sweven.common.repository.entity.request.BaseBody
+-keep class * implements pers.sweven.common.repository.entity.request.GeneratedFields {
+    <init>();
+}
+# 子类重写 intercept 时按方法名检测
+-keepclassmembernames class * extends pers.sweven.common.repository.entity.request.BaseRequest {
+    boolean intercept(java.lang.annotation.Annotation, java.lang.Object);
+}
+# PageFactory 按类名加载 common-compiler 生成的路由注册表
+-keep class pers.sweven.common.app.routes.RouteIndex_* {
+    <init>();
+}
@@ -14,24 +14,13 @@ import androidx.activity.result.ActivityResultLauncher;
 import androidx.core.app.ActivityOptionsCompat;
 
 import org.jetbrains.annotations.NotNull;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 import java.io.Serializable;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * PageFactory 是一个功能完备的 Android 页面导航框架，提供了灵活且高效的页面跳转解决方案。
@@ -48,8 +37,11 @@ import java.util.concurrent.ConcurrentHashMap;
  *
  * <p>使用示例：
  * <pre>{@code
- * // 注册路由
+ * // 注册路由，支持 ":name" 参数段和末尾的 "*" 通配段，路径参数会放入跳转的 Bundle
  * PageFactory.getInstance().addRoute("/user/profile", UserProfileActivity.class);
+ * PageFactory.getInstance().addRoute("/goods/:id", GoodsActivity.class);
+ * // 按分组延迟注册，第一次跳转到 /order/... 时才注册
+ * PageFactory.getInstance().addRouteGroup("order", table -> table.add("/order/:id", OrderActivity.class));
  *
  * // 构建导航请求
  * PageFactory.getInstance().build("/user/profile")
@@ -66,9 +58,13 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public abstract class PageFactory<T extends PageFactory.NavigationBuilder<?>> {
     // 路由表，用于存储路径与Activity类的映射关系
-    protected final ConcurrentHashMap<String, Class<?>> routeTable = new ConcurrentHashMap<>();
+    protected final RouteTable routeTable = new RouteTable();
     // 全局拦截器列表，存储所有全局拦截器，执行时按优先级排序
     protected final List<RouteInterceptor> globalInterceptors = new ArrayList<>();
+    // 编译期生成的路由注册表所在的包，见 common-compiler 的 RouteProcessor
+    private static final String ROUTE_INDEX_PREFIX = "pers.sweven.common.app.routes.RouteIndex_";
+    // 是否已加载编译期生成的路由注册表
+    private volatile boolean routeIndexLoaded;
 
 
     /**
@@ -79,20 +75,66 @@ public abstract class PageFactory<T extends PageFactory.NavigationBuilder<?>> {
      * @throws IllegalArgumentException 如果路径为空
      */
     public T build(String path) {
+        loadRouteIndexes();
         return createNavigationBuilder(path);
     }
 
     // 可重写的工厂方法（扩展点）
     protected abstract T createNavigationBuilder(String path);
 
+    /**
+     * 使用 {@link Route} 注解的模块名，与 kapt 参数 ROUTE_MODULE_NAME 一致（不是字母、数字、下划线的字符替换为 "_"）。
+     * 多模块项目重写此方法返回所有模块名。
+     *
+     * @return 模块名列表，默认只有 app
+     */
+    protected String[] routeModules() {
+        return new String[]{"app"};
+    }
+
+    /**
+     * 第一次 build 时加载各模块编译期生成的路由注册表，注册表只登记分组，分组内的路由在第一次访问时才注册。
+     */
+    private void loadRouteIndexes() {
+        if (routeIndexLoaded) {
+            return;
+        }
+        synchronized (this) {
+            if (routeIndexLoaded) {
+                return;
+            }
+            for (String module : routeModules()) {
+                try {
+                    Class<?> index = Class.forName(ROUTE_INDEX_PREFIX + module);
+                    ((RouteTable.RouteGroup) index.newInstance()).loadInto(routeTable);
+                } catch (ClassNotFoundException e) {
+                    // 模块没有使用 @Route
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+            routeIndexLoaded = true;
+        }
+    }
+
     /**
      * 向路由表中添加路由信息。
      *
-     * @param path  路由路径
+     * @param path  路由路径，可以包含 ":name" 参数段和末尾的 "*name" 通配段，见 {@link RouteTable}
      * @param clazz 对应的Activity类
      */
     public void addRoute(@NotNull String path,@NotNull Class<?> clazz) {
-        routeTable.put(path, clazz);
+        routeTable.add(path, clazz);
+    }
+
+    /**
+     * 添加延迟加载的路由分组，第一次跳转到该分组下的路径时才注册分组内的路由。
+     *
+     * @param group  分组名，即路径的第一段
+     * @param loader 分组的加载器
+     */
+    public void addRouteGroup(@NotNull String group, @NotNull RouteTable.RouteGroup loader) {
+        routeTable.addGroup(group, loader);
     }
 
     /**
@@ -249,120 +291,15 @@ public abstract class PageFactory<T extends PageFactory.NavigationBuilder<?>> {
          * @return 导航构建器实例，支持链式调用
          */
         public T withUrl(String url) {
-            if (url == null || url.isEmpty()) {
-                return self();
-            }
-
-            // 移除URL中的路径部分，只保留查询参数
-            int queryStart = url.indexOf('?');
-            String queryPart = (queryStart >= 0) ? url.substring(queryStart + 1) : url;
-
-            if (queryPart.isEmpty()) {
-                return self();
-            }
-
-
-            // 分割参数对
-            String[] params = queryPart.split("&");
-            for (String param : params) {
-                String[] keyValue = param.split("=", 2);
-                if (keyValue.length != 2) {
-                    continue; // 跳过无效的参数对
-                }
-
-                String key = keyValue[0];
-                String value = keyValue[1];
-
-                // 处理标准数组格式: key[]=value
-//                if (key.endsWith("[]")) {
-//                    String arrayKey = key.substring(0, key.length() - 2);
-//                    arrayParams.computeIfAbsent(arrayKey, k -> new ArrayList<>()).add(value);
-//                    continue;
-//                }
-
-                // 处理单个值的情况
-                handleSimpleParameter(key, value);
-            }
-
+            UrlQuery.simple(url).inject(extras);
             return self();
         }
 
         /**
-         * 处理简单参数（基本类型） - 优化版本（避免try-catch）
+         * 处理简单参数（基本类型），规则见 {@link UrlQuery#simple(String)}
          */
         private void handleSimpleParameter(String key, String value) {
-            // 检查是否为布尔值
-            if ("true".equalsIgnoreCase(value)) {
-                extras.putBoolean(key, true);
-                return;
-            } else if ("false".equalsIgnoreCase(value)) {
-                extras.putBoolean(key, false);
-                return;
-            }
-
-            // 移除Long类型的"L"后缀
-            String longValue = value;
-            boolean hasLongSuffix = false;
-            if (value.toLowerCase().endsWith("l")) {
-                longValue = value.substring(0, value.length() - 1);
-                hasLongSuffix = true;
-            }
-
-            // 整数模式（不含小数部分）
-            if (longValue.matches("^[+-]?\\d+$")) {
-                // 检查是否为Integer范围
-                if (isInIntegerRange(longValue)) {
-                    extras.putInt(key, Integer.parseInt(longValue));
-                    return;
-                }
-
-                // 检查是否为Long范围
-                if (!hasLongSuffix || longValue.matches("^[+-]?\\d{1,18}$")) {
-                    extras.putLong(key, Long.parseLong(longValue));
-                    return;
-                }
-            }
-
-            // 浮点模式（包含小数或指数）
-            if (value.matches("^[+-]?\\d*\\.\\d+(?:[eE][+-]?\\d+)?$")) {
-                // 检查是否可以用Float表示
-                if (isFloatValue(value)) {
-                    extras.putFloat(key, Float.parseFloat(value));
-                    return;
-                }
-
-                // 否则使用Double
-                extras.putDouble(key, Double.parseDouble(value));
-                return;
-            }
-
-            // 默认作为String处理
-            extras.putString(key, value);
-        }
-
-        /**
-         * 检查字符串是否在Integer范围内
-         */
-        private boolean isInIntegerRange(String value) {
-            if (value.startsWith("-")) {
-                if (value.length() < 11) return true;
-                if (value.length() > 11) return false;
-                return value.compareTo(String.valueOf(Integer.MIN_VALUE)) <= 0;
-            } else {
-                if (value.startsWith("+")) value = value.substring(1);
-                if (value.length() < 10) return true;
-                if (value.length() > 10) return false;
-                return value.compareTo(String.valueOf(Integer.MAX_VALUE)) <= 0;
-            }
-        }
-
-        /**
-         * 检查字符串是否可以用Float精确表示
-         */
-        private boolean isFloatValue(String value) {
-            double d = Double.parseDouble(value);
-            float f = (float) d;
-            return d == f;
+            UrlQuery.putSimple(extras, key, value);
         }
 
         /**
@@ -661,14 +598,11 @@ public abstract class PageFactory<T extends PageFactory.NavigationBuilder<?>> {
         @Deprecated
         public void navigation(Activity activity, int requestCode) {
             // 1. 路由表校验
-            Class<?> target = (Class<?>) factory.routeTable.get(path);
-            if (target == null) {
-                handleError(activity, new RuntimeException("Route not found: " + path));
-                return;
-            }
+            Class<?> target = resolveTarget(activity);
+            if (target == null) return;
 
             // 2. 拦截器处理流程
-            if (checkInterceptors()) return;
+            if (checkInterceptors(target)) return;
 
             // 3. Intent构造
             Intent intent = buildBaseIntent(activity, target);
@@ -700,14 +634,11 @@ public abstract class PageFactory<T extends PageFactory.NavigationBuilder<?>> {
          */
         public void navigation(Context context, ActivityResultLauncher<Intent> launcher) {
             // 1. 路由表校验
-            Class<?> target = factory.routeTable.get(path);
-            if (target == null) {
-                handleError(context, new RuntimeException("Route not found: " + path));
-                return;
-            }
+            Class<?> target = resolveTarget(context);
+            if (target == null) return;
 
             // 2. 拦截器处理流程
-            if (checkInterceptors()) return;
+            if (checkInterceptors(target)) return;
 
             // 3. Intent构造
             Intent intent = buildBaseIntent(context, target);
@@ -716,14 +647,35 @@ public abstract class PageFactory<T extends PageFactory.NavigationBuilder<?>> {
             executeNavigation(context, launcher, options, intent);
         }
 
+        /**
+         * 匹配路由表，并把路径参数放入参数容器；已通过 withXxx 设置的同名参数优先。
+         *
+         * @param context 上下文对象
+         * @return 目标Activity类，找不到时为null
+         */
+        private Class<?> resolveTarget(Context context) {
+            RouteTable.Match match = factory.routeTable.match(path);
+            if (match == null) {
+                handleError(context, new RuntimeException("Route not found: " + path));
+                return null;
+            }
+            for (Map.Entry<String, String> entry : match.params.entrySet()) {
+                if (!extras.containsKey(entry.getKey())) {
+                    handleSimpleParameter(entry.getKey(), entry.getValue());
+                }
+            }
+            return match.target;
+        }
+
         /**
          * 拦截器检查流程，判断导航请求是否被拦截。
          * 使用Java标准库的Collections.sort进行排序，性能更优。
          *
+         * @param target 目标Activity类
          * @return 是否被拦截
          */
         @SuppressLint("ObsoleteSdkInt")
-        private boolean checkInterceptors() {
+        private boolean checkInterceptors(Class<?> target) {
             // 合并全局和局部拦截器
             List<PrioritizedInterceptor> allInterceptors = mergeInterceptors();
 
@@ -740,9 +692,8 @@ public abstract class PageFactory<T extends PageFactory.NavigationBuilder<?>> {
 
             // 执行拦截检查
             for (PrioritizedInterceptor wrapper : allInterceptors) {
-                Class<?> aClass = factory.routeTable.get(this.path);
-                if (wrapper.interceptor.intercept(aClass, extras)) {
-                    wrapper.interceptor.onIntercepted(aClass);
+                if (wrapper.interceptor.intercept(target, extras)) {
+                    wrapper.interceptor.onIntercepted(target);
                     return true;
                 }
             }
@@ -918,311 +869,11 @@ public abstract class PageFactory<T extends PageFactory.NavigationBuilder<?>> {
             this.extras = extras;
         }
 
-        public void inject() {
-            if (url == null || url.isEmpty()) {
-                return;
-            }
-
-            // 移除URL中的路径部分，只保留查询参数
-            int queryStart = url.indexOf('?');
-            String queryPart = (queryStart >= 0) ? url.substring(queryStart + 1) : url;
-
-            if (queryPart.isEmpty()) {
-                return;
-            }
-
-            // 用于存储数组参数的映射
-            Map<String, List<String>> arrayParams = new HashMap<>();
-
-            // 分割参数对
-            String[] params = queryPart.split("&");
-            for (String param : params) {
-                String[] keyValue = param.split("=", 2);
-                if (keyValue.length != 2) {
-                    continue; // 跳过无效的参数对
-                }
-
-                String key = keyValue[0];
-                String value = keyValue[1];
-
-                // 处理标准数组格式: key[]=value
-                if (key.endsWith("[]")) {
-                    String arrayKey = key.substring(0, key.length() - 2);
-                    arrayParams.computeIfAbsent(arrayKey, k -> new ArrayList<>()).add(value);
-                    continue;
-                }
-
-                // 处理JSON格式的参数
-                if (isJsonString(value)) {
-                    handleJsonParameter(key, value);
-                    continue;
-                }
-
-                // 处理普通参数（包括逗号分隔的数组）
-                handleNormalParameter(key, value, arrayParams);
-            }
-
-            // 处理收集到的所有数组参数
-            for (Map.Entry<String, List<String>> entry : arrayParams.entrySet()) {
-                String key = entry.getKey();
-                List<String> values = entry.getValue();
-                handleArrayParameter(key, values.toArray(new String[0]));
-            }
-        }
-
-        /**
-         * 判断字符串是否是JSON格式
-         */
-        private boolean isJsonString(String value) {
-            value = value.trim();
-            return (value.startsWith("{") && value.endsWith("}")) ||
-                    (value.startsWith("[") && value.endsWith("]"));
-        }
-
         /**
-         * 处理JSON格式的参数
+         * 解析地址中的查询参数并写入 Bundle，同一地址的解析结果会被缓存。
          */
-        private void handleJsonParameter(String key, String jsonValue) {
-            try {
-                // 移除首尾的引号（如果有的话）
-                if ((jsonValue.startsWith("\"") && jsonValue.endsWith("\"")) ||
-                        (jsonValue.startsWith("'") && jsonValue.endsWith("'"))) {
-                    jsonValue = jsonValue.substring(1, jsonValue.length() - 1);
-                }
-
-                // 尝试解析为JSONObject
-                if (jsonValue.startsWith("{")) {
-                    JSONObject jsonObject = new JSONObject(jsonValue);
-                    Bundle jsonBundle = new Bundle();
-
-                    // 将JSON对象的键值对转换为Bundle
-                    Iterator<String> keys = jsonObject.keys();
-                    while (keys.hasNext()) {
-                        String jsonKey = keys.next();
-                        Object jsonValueObj = jsonObject.get(jsonKey);
-
-                        // 根据JSON值的类型放入Bundle
-                        if (jsonValueObj instanceof Integer) {
-                            jsonBundle.putInt(jsonKey, (Integer) jsonValueObj);
-                        } else if (jsonValueObj instanceof Long) {
-                            jsonBundle.putLong(jsonKey, (Long) jsonValueObj);
-                        } else if (jsonValueObj instanceof Double) {
-                            jsonBundle.putDouble(jsonKey, (Double) jsonValueObj);
-                        } else if (jsonValueObj instanceof Boolean) {
-                            jsonBundle.putBoolean(jsonKey, (Boolean) jsonValueObj);
-                        } else if (jsonValueObj instanceof String) {
-                            jsonBundle.putString(jsonKey, (String) jsonValueObj);
-                        } else {
-                            // 对于其他类型，保存为字符串
-                            jsonBundle.putString(jsonKey, jsonValueObj.toString());
-                        }
-                    }
-
-                    // 将JSON对象作为Bundle存储
-                    extras.putBundle(key, jsonBundle);
-                    return;
-                }
-
-                // 尝试解析为JSONArray
-                if (jsonValue.startsWith("[")) {
-                    JSONArray jsonArray = new JSONArray(jsonValue);
-                    ArrayList<String> arrayList = new ArrayList<>();
-
-                    // 将JSON数组转换为字符串列表
-                    for (int i = 0; i < jsonArray.length(); i++) {
-                        arrayList.add(jsonArray.getString(i));
-                    }
-
-                    // 将JSON数组作为字符串列表存储
-                    extras.putStringArrayList(key, arrayList);
-                }
-            } catch (JSONException e) {
-                // 如果解析失败，将JSON作为普通字符串处理
-                extras.putString(key, jsonValue);
-            }
-        }
-
-        /**
-         * 处理普通参数（非数组格式）
-         */
-        private void handleNormalParameter(String key, String value, Map<String, List<String>> arrayParams) {
-            // 处理逗号分隔的数组
-            if (value.contains(",") && !isQuotedString(value) && !isNumeric(value)) {
-                String[] values = value.split(",");
-                arrayParams.put(key, Arrays.asList(values));
-                return;
-            }
-
-            // 先检查是否为布尔值（效率高）
-            if ("true".equalsIgnoreCase(value)) {
-                extras.putBoolean(key, true);
-                return;
-            } else if ("false".equalsIgnoreCase(value)) {
-                extras.putBoolean(key, false);
-                return;
-            }
-
-            // 检查是否为数值类型（使用正则表达式）
-            if (value.matches("^-?\\d+$")) {
-                // 整数字面量
-                try {
-                    // 尝试解析为int
-                    int intValue = Integer.parseInt(value);
-                    extras.putInt(key, intValue);
-                    return;
-                } catch (NumberFormatException e) {
-                    // 如果超出int范围，尝试long
-                    long longValue = Long.parseLong(value);
-                    extras.putLong(key, longValue);
-                    return;
-                }
-            } else if (value.matches("^-?\\d+\\.\\d+$")) {
-                // 小数字面量
-                try {
-                    // 尝试解析为float
-                    float floatValue = Float.parseFloat(value);
-                    extras.putFloat(key, floatValue);
-                    return;
-                } catch (NumberFormatException e) {
-                    // 如果超出float范围，尝试double
-                    double doubleValue = Double.parseDouble(value);
-                    extras.putDouble(key, doubleValue);
-                    return;
-                }
-            }
-
-            // 尝试解析为日期
-//            Date dateValue = parseDate(value);
-//            if (dateValue != null) {
-//                extras.putLong(key, dateValue.getTime());
-//                return;
-//            }
-
-            // 默认作为字符串处理
-            extras.putString(key, value);
-        }
-
-        /**
-         * 判断字符串是否是带引号的字符串（不视为数组）
-         */
-        private boolean isQuotedString(String value) {
-            return (value.startsWith("\"") && value.endsWith("\"")) ||
-                    (value.startsWith("'") && value.endsWith("'"));
-        }
-
-        /**
-         * 判断字符串是否是纯数字（避免将数字列表误判为数组）
-         */
-        private boolean isNumeric(String value) {
-            return value.matches("^-?\\d+(\\.\\d+)?$");
-        }
-
-        /**
-         * 处理数组类型的参数
-         */
-        private void handleArrayParameter(String key, String[] values) {
-            if (values.length == 0) return;
-
-            // 尝试检测数组元素类型
-            try {
-                // 尝试解析为整数数组
-                int[] intArray = new int[values.length];
-                for (int i = 0; i < values.length; i++) {
-                    intArray[i] = Integer.parseInt(values[i]);
-                }
-                extras.putIntArray(key, intArray);
-                return;
-            } catch (NumberFormatException e) {
-                // 不是整数数组，继续尝试其他类型
-            }
-
-            try {
-                // 尝试解析为长整数数组
-                long[] longArray = new long[values.length];
-                for (int i = 0; i < values.length; i++) {
-                    longArray[i] = Long.parseLong(values[i]);
-                }
-                extras.putLongArray(key, longArray);
-                return;
-            } catch (NumberFormatException e) {
-                // 不是长整数数组，继续尝试其他类型
-            }
-
-            try {
-                // 尝试解析为浮点数数组
-                float[] floatArray = new float[values.length];
-                for (int i = 0; i < values.length; i++) {
-                    floatArray[i] = Float.parseFloat(values[i]);
-                }
-                extras.putFloatArray(key, floatArray);
-                return;
-            } catch (NumberFormatException e) {
-                // 不是浮点数数组，继续尝试其他类型
-            }
-
-            try {
-                // 尝试解析为双精度浮点数数组
-                double[] doubleArray = new double[values.length];
-                for (int i = 0; i < values.length; i++) {
-                    doubleArray[i] = Double.parseDouble(values[i]);
-                }
-                extras.putDoubleArray(key, doubleArray);
-                return;
-            } catch (NumberFormatException e) {
-                // 不是双精度浮点数数组，继续尝试其他类型
-            }
-
-            // 尝试解析为布尔数组
-            boolean[] booleanArray = new boolean[values.length];
-            boolean allBoolean = true;
-            for (int i = 0; i < values.length; i++) {
-                if ("true".equalsIgnoreCase(values[i]) || "1".equals(values[i])) {
-                    booleanArray[i] = true;
-                } else if ("false".equalsIgnoreCase(values[i]) || "0".equals(values[i])) {
-                    booleanArray[i] = false;
-                } else {
-                    allBoolean = false;
-                    break;
-                }
-            }
-
-            if (allBoolean) {
-                // 将布尔数组转换为字节数组存储（Bundle不直接支持boolean[]）
-                byte[] byteArray = new byte[booleanArray.length];
-                for (int i = 0; i < booleanArray.length; i++) {
-                    byteArray[i] = (byte) (booleanArray[i] ? 1 : 0);
-                }
-                extras.putByteArray(key, byteArray);
-                return;
-            }
-
-            // 默认作为字符串数组处理
-            extras.putStringArray(key, values);
-        }
-
-        /**
-         * 解析日期字符串，支持多种常见日期格式
-         */
-        private Date parseDate(String value) {
-            // 定义支持的日期格式
-            List<SimpleDateFormat> formats = Arrays.asList(
-                    new SimpleDateFormat("yyyy-MM-dd", Locale.US),
-                    new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US),
-                    new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US),
-                    new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS", Locale.US),
-                    new SimpleDateFormat("yyyy/MM/dd", Locale.US),
-                    new SimpleDateFormat("yyyy/MM/dd HH:mm:ss", Locale.US)
-            );
-
-            for (SimpleDateFormat format : formats) {
-                try {
-                    return format.parse(value);
-                } catch (ParseException e) {
-                    // 尝试下一个格式
-                }
-            }
-
-            return null; // 无法解析的日期格式
+        public void inject() {
+            UrlQuery.of(url).inject(extras);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package pers.sweven.common.app;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明 Activity 的路由路径，由 common-compiler 在编译期生成路由注册表，
+ * PageFactory 第一次 build 时加载，不需要手动 addRoute。
+ *
+ * <p>路径规则与 {@link RouteTable} 相同，重复的路径、格式错误的路径会在编译时报错。
+ * <pre>{@code
+ * @Route("/user/:id")
+ * public class UserActivity extends AppCompatActivity { ... }
+ * }</pre>
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Route {
+    /**
+     * @return 路由路径，以 "/" 开头
+     */
+    String value();
+}
@@ -0,0 +1,271 @@
+package pers.sweven.common.app;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PageFactory 使用的路由表。
+ *
+ * <p>不含参数的路径直接按字符串查找；含参数的路径编译为按 "/" 分段的前缀树：
+ * <ul>
+ *   <li>{@code /user/:id}：":" 开头的段匹配任意一段，段的内容以 id 为键放入参数</li>
+ *   <li>{@code /web/*url}：以 "*" 开头的段只能位于末尾，匹配剩余的零到多段，名称可省略</li>
+ * </ul>
+ * 匹配时固定段优先于参数段，参数段优先于通配段，前面的段匹配失败会回退尝试其它分支。
+ *
+ * <p>路由可以按分组（路径的第一段）延迟注册：{@link #addGroup} 只记录分组的加载器，
+ * 第一次查找该分组下的路径时才调用加载器注册分组内的路由，冷启动不需要注册全部路由。
+ *
+ * <pre>{@code
+ * routeTable.add("/user/:id", UserActivity.class);
+ * routeTable.addGroup("order", table -> {
+ *     table.add("/order/list", OrderListActivity.class);
+ *     table.add("/order/:id/detail", OrderDetailActivity.class);
+ * });
+ * RouteTable.Match match = routeTable.match("/user/10086"); // params: {id=10086}
+ * }</pre>
+ */
+public final class RouteTable {
+    // 不含参数的路由，查找时不加锁
+    private final ConcurrentHashMap<String, Class<?>> exactRoutes = new ConcurrentHashMap<>();
+    // 尚未加载的路由分组
+    // 同一分组可以由多个模块注册，第一次查找时全部加载
+    private final ConcurrentHashMap<String, List<RouteGroup>> pendingGroups = new ConcurrentHashMap<>();
+    // 含参数的路由，读写都在 this 上同步
+    private final Node root = new Node();
+
+    /**
+     * 路由分组的加载器，分组第一次被访问时调用。
+     */
+    public interface RouteGroup {
+        /**
+         * 把分组内的路由注册到路由表中。
+         *
+         * @param table 路由表
+         */
+        void loadInto(RouteTable table);
+    }
+
+    /**
+     * 路由匹配结果。
+     */
+    public static final class Match {
+        // 目标Activity类
+        public final Class<?> target;
+        // 路径中解析出的参数，没有参数时为空表
+        public final Map<String, String> params;
+
+        Match(Class<?> target, Map<String, String> params) {
+            this.target = target;
+            this.params = params;
+        }
+    }
+
+    /**
+     * 添加路由，同一路径重复添加时后添加的生效。
+     *
+     * @param path  路由路径，可以包含 ":name" 参数段和末尾的 "*name" 通配段
+     * @param clazz 对应的Activity类
+     * @throws IllegalArgumentException 通配段不在末尾，或同一位置的参数名不一致
+     */
+    public void add(@NotNull String path, @NotNull Class<?> clazz) {
+        if (path.indexOf(':') < 0 && path.indexOf('*') < 0) {
+            exactRoutes.put(path, clazz);
+            return;
+        }
+        List<String> segments = split(path);
+        synchronized (this) {
+            Node node = root;
+            for (int i = 0; i < segments.size(); i++) {
+                String segment = segments.get(i);
+                char first = segment.isEmpty() ? 0 : segment.charAt(0);
+                if (first == '*') {
+                    if (i != segments.size() - 1) {
+                        throw new IllegalArgumentException("Wildcard must be the last segment: " + path);
+                    }
+                    node.wildcardName = segment.length() > 1 ? segment.substring(1) : null;
+                    node.wildcardTarget = clazz;
+                    return;
+                }
+                if (first == ':') {
+                    String name = segment.substring(1);
+                    if (node.param == null) {
+                        node.param = new Node();
+                        node.paramName = name;
+                    } else if (!node.paramName.equals(name)) {
+                        throw new IllegalArgumentException("Conflicting parameter :" + name
+                                + " with :" + node.paramName + " in " + path);
+                    }
+                    node = node.param;
+                } else {
+                    if (node.children == null) {
+                        node.children = new HashMap<>();
+                    }
+                    Node child = node.children.get(segment);
+                    if (child == null) {
+                        child = new Node();
+                        node.children.put(segment, child);
+                    }
+                    node = child;
+                }
+            }
+            node.target = clazz;
+        }
+    }
+
+    /**
+     * 添加延迟加载的路由分组，同一分组的多个加载器都会在第一次查找该分组时执行。
+     *
+     * @param group  分组名，即路径的第一段，如 "/order/list" 的分组为 "order"
+     * @param loader 分组的加载器
+     */
+    public void addGroup(@NotNull String group, @NotNull RouteGroup loader) {
+        synchronized (this) {
+            List<RouteGroup> loaders = pendingGroups.get(group);
+            if (loaders == null) {
+                loaders = new ArrayList<>();
+                pendingGroups.put(group, loaders);
+            }
+            loaders.add(loader);
+        }
+    }
+
+    /**
+     * 查找路径对应的Activity类，忽略路径参数。
+     *
+     * @param path 路由路径
+     * @return 对应的Activity类，找不到时为null
+     */
+    public Class<?> get(String path) {
+        Match match = match(path);
+        return match == null ? null : match.target;
+    }
+
+    /**
+     * 匹配路由路径。
+     *
+     * @param path 路由路径
+     * @return 匹配结果，找不到时为null
+     */
+    public Match match(String path) {
+        if (path == null) {
+            return null;
+        }
+        Class<?> exact = exactRoutes.get(path);
+        if (exact != null) {
+            return new Match(exact, Collections.<String, String>emptyMap());
+        }
+        List<String> segments = split(path);
+        synchronized (this) {
+            if (!segments.isEmpty() && loadGroup(segments.get(0))) {
+                exact = exactRoutes.get(path);
+                if (exact != null) {
+                    return new Match(exact, Collections.<String, String>emptyMap());
+                }
+            }
+            Map<String, String> params = new HashMap<>();
+            Class<?> target = match(root, segments, 0, params);
+            return target == null ? null : new Match(target, params);
+        }
+    }
+
+    /**
+     * 加载分组，调用方需持有 this 的锁。
+     *
+     * @return 是否加载了分组
+     */
+    private boolean loadGroup(String group) {
+        List<RouteGroup> loaders = pendingGroups.remove(group);
+        if (loaders == null) {
+            return false;
+        }
+        for (RouteGroup loader : loaders) {
+            try {
+                loader.loadInto(this);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 从 index 段开始匹配，匹配成功后才写入参数，回退时不需要清理。
+     */
+    private static Class<?> match(Node node, List<String> segments, int index, Map<String, String> params) {
+        if (index == segments.size()) {
+            if (node.target != null) {
+                return node.target;
+            }
+            if (node.wildcardTarget != null && node.wildcardName != null) {
+                params.put(node.wildcardName, "");
+            }
+            return node.wildcardTarget;
+        }
+        String segment = segments.get(index);
+        if (node.children != null) {
+            Node child = node.children.get(segment);
+            if (child != null) {
+                Class<?> target = match(child, segments, index + 1, params);
+                if (target != null) {
+                    return target;
+                }
+            }
+        }
+        if (node.param != null) {
+            Class<?> target = match(node.param, segments, index + 1, params);
+            if (target != null) {
+                params.put(node.paramName, segment);
+                return target;
+            }
+        }
+        if (node.wildcardTarget != null && node.wildcardName != null) {
+            StringBuilder rest = new StringBuilder(segment);
+            for (int i = index + 1; i < segments.size(); i++) {
+                rest.append('/').append(segments.get(i));
+            }
+            params.put(node.wildcardName, rest.toString());
+        }
+        return node.wildcardTarget;
+    }
+
+    /**
+     * 按 "/" 分段，忽略空段，"/user//10086/" 与 "/user/10086" 相同。
+     */
+    private static List<String> split(String path) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        int length = path.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || path.charAt(i) == '/') {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * 前缀树节点。
+     */
+    private static final class Node {
+        // 固定段子节点
+        Map<String, Node> children;
+        // 参数段子节点
+        Node param;
+        String paramName;
+        // 末尾通配段
+        Class<?> wildcardTarget;
+        String wildcardName;
+        // 路径在此结束时的目标
+        Class<?> target;
+    }
+}
@@ -0,0 +1,661 @@
+package pers.sweven.common.app;
+
+import android.os.Bundle;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 跳转地址查询参数的解析结果。
+ *
+ * <p>查询参数只扫描一遍，每个值按字符判断类型，不使用正则表达式，也不依赖解析失败的异常；
+ * 解析结果按地址缓存，同一个地址再次跳转时直接写入 Bundle。
+ * 有两种解析规则：
+ * <ul>
+ *   <li>{@link #of(String)}：{@link PageFactory.BundleUrl} 的规则，支持数组、逗号分隔的数组和 JSON</li>
+ *   <li>{@link #simple(String)}：{@link PageFactory.NavigationBuilder#withUrl(String)} 的规则，只解析基本类型</li>
+ * </ul>
+ */
+final class UrlQuery {
+    // 缓存的地址数量
+    private static final int CACHE_SIZE = 64;
+    private static final Map<String, UrlQuery> BUNDLE_CACHE = newCache();
+    private static final Map<String, UrlQuery> SIMPLE_CACHE = newCache();
+    private static final UrlQuery EMPTY = new UrlQuery(new ArrayList<Entry>());
+
+    // 值的类型
+    private static final int BOOLEAN = 0;
+    private static final int INT = 1;
+    private static final int LONG = 2;
+    private static final int FLOAT = 3;
+    private static final int DOUBLE = 4;
+    private static final int STRING = 5;
+    private static final int BUNDLE = 6;
+    private static final int STRING_LIST = 7;
+    private static final int INT_ARRAY = 8;
+    private static final int LONG_ARRAY = 9;
+    private static final int FLOAT_ARRAY = 10;
+    private static final int BYTE_ARRAY = 11;
+    private static final int STRING_ARRAY = 12;
+
+    private final Entry[] entries;
+
+    private UrlQuery(List<Entry> entries) {
+        this.entries = entries.toArray(new Entry[0]);
+    }
+
+    /**
+     * 按 BundleUrl 的规则解析地址的查询参数。
+     *
+     * @param url 跳转地址，没有 "?" 时整个字符串视为查询参数
+     */
+    static UrlQuery of(String url) {
+        if (url == null || url.isEmpty()) {
+            return EMPTY;
+        }
+        UrlQuery query;
+        synchronized (BUNDLE_CACHE) {
+            query = BUNDLE_CACHE.get(url);
+        }
+        if (query == null) {
+            query = parseBundle(url);
+            synchronized (BUNDLE_CACHE) {
+                BUNDLE_CACHE.put(url, query);
+            }
+        }
+        return query;
+    }
+
+    /**
+     * 按 withUrl 的规则解析地址的查询参数。
+     *
+     * @param url 跳转地址，没有 "?" 时整个字符串视为查询参数
+     */
+    static UrlQuery simple(String url) {
+        if (url == null || url.isEmpty()) {
+            return EMPTY;
+        }
+        UrlQuery query;
+        synchronized (SIMPLE_CACHE) {
+            query = SIMPLE_CACHE.get(url);
+        }
+        if (query == null) {
+            List<Entry> entries = new ArrayList<>();
+            String queryPart = queryPart(url);
+            int start = 0;
+            while (start <= queryPart.length()) {
+                int end = queryPart.indexOf('&', start);
+                if (end < 0) {
+                    end = queryPart.length();
+                }
+                int equals = queryPart.indexOf('=', start);
+                // 没有 "=" 的参数对无效，跳过
+                if (equals >= 0 && equals < end) {
+                    String key = queryPart.substring(start, equals);
+                    entries.add(simpleEntry(key, queryPart.substring(equals + 1, end)));
+                }
+                start = end + 1;
+            }
+            query = new UrlQuery(entries);
+            synchronized (SIMPLE_CACHE) {
+                SIMPLE_CACHE.put(url, query);
+            }
+        }
+        return query;
+    }
+
+    /**
+     * 把解析结果写入 Bundle，可变的值（数组、Bundle、列表）每次写入副本。
+     */
+    void inject(Bundle extras) {
+        for (Entry entry : entries) {
+            entry.putInto(extras);
+        }
+    }
+
+    /**
+     * 按 withUrl 的规则把单个参数写入 Bundle，路径参数也使用这个规则。
+     */
+    static void putSimple(Bundle extras, String key, String value) {
+        simpleEntry(key, value).putInto(extras);
+    }
+
+    private static String queryPart(String url) {
+        // 移除URL中的路径部分，只保留查询参数
+        int queryStart = url.indexOf('?');
+        return queryStart >= 0 ? url.substring(queryStart + 1) : url;
+    }
+
+    // region BundleUrl 规则
+
+    private static UrlQuery parseBundle(String url) {
+        String queryPart = queryPart(url);
+        List<Entry> entries = new ArrayList<>();
+        // 数组参数最后统一写入，保持首次出现的顺序
+        Map<String, List<String>> arrayParams = new LinkedHashMap<>();
+
+        int start = 0;
+        while (start < queryPart.length()) {
+            int end = queryPart.indexOf('&', start);
+            if (end < 0) {
+                end = queryPart.length();
+            }
+            int equals = queryPart.indexOf('=', start);
+            if (equals < 0 || equals >= end) {
+                // 跳过无效的参数对
+                start = end + 1;
+                continue;
+            }
+            String key = queryPart.substring(start, equals);
+            String value = queryPart.substring(equals + 1, end);
+            start = end + 1;
+
+            // 处理标准数组格式: key[]=value
+            if (key.endsWith("[]")) {
+                String arrayKey = key.substring(0, key.length() - 2);
+                List<String> values = arrayParams.get(arrayKey);
+                if (values == null) {
+                    values = new ArrayList<>();
+                    arrayParams.put(arrayKey, values);
+                }
+                values.add(value);
+                continue;
+            }
+
+            // 处理JSON格式的参数
+            if (isJsonString(value)) {
+                Entry entry = jsonEntry(key, value);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+                continue;
+            }
+
+            // 处理逗号分隔的数组，带引号的字符串不视为数组
+            if (value.indexOf(',') >= 0 && !isQuotedString(value)) {
+                arrayParams.put(key, splitComma(value));
+                continue;
+            }
+            entries.add(normalEntry(key, value));
+        }
+
+        for (Map.Entry<String, List<String>> entry : arrayParams.entrySet()) {
+            List<String> values = entry.getValue();
+            if (!values.isEmpty()) {
+                entries.add(arrayEntry(entry.getKey(), values.toArray(new String[0])));
+            }
+        }
+        return new UrlQuery(entries);
+    }
+
+    private static boolean isJsonString(String value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') start++;
+        while (end > start && value.charAt(end - 1) <= ' ') end--;
+        if (end - start < 2) {
+            return false;
+        }
+        char first = value.charAt(start);
+        char last = value.charAt(end - 1);
+        return (first == '{' && last == '}') || (first == '[' && last == ']');
+    }
+
+    private static boolean isQuotedString(String value) {
+        return (value.startsWith("\"") && value.endsWith("\"")) ||
+                (value.startsWith("'") && value.endsWith("'"));
+    }
+
+    /**
+     * 与 String.split(",") 相同，去掉末尾的空字符串
+     */
+    private static List<String> splitComma(String value) {
+        List<String> values = new ArrayList<>();
+        int start = 0;
+        int end;
+        while ((end = value.indexOf(',', start)) >= 0) {
+            values.add(value.substring(start, end));
+            start = end + 1;
+        }
+        values.add(value.substring(start));
+        int size = values.size();
+        while (size > 0 && values.get(size - 1).isEmpty()) {
+            values.remove(--size);
+        }
+        return values;
+    }
+
+    /**
+     * JSON 对象转换为 Bundle，JSON 数组转换为字符串列表，解析失败时作为普通字符串
+     */
+    private static Entry jsonEntry(String key, String jsonValue) {
+        try {
+            if (jsonValue.startsWith("{")) {
+                JSONObject jsonObject = new JSONObject(jsonValue);
+                Bundle jsonBundle = new Bundle();
+                Iterator<String> keys = jsonObject.keys();
+                while (keys.hasNext()) {
+                    String jsonKey = keys.next();
+                    Object value = jsonObject.get(jsonKey);
+                    if (value instanceof Integer) {
+                        jsonBundle.putInt(jsonKey, (Integer) value);
+                    } else if (value instanceof Long) {
+                        jsonBundle.putLong(jsonKey, (Long) value);
+                    } else if (value instanceof Double) {
+                        jsonBundle.putDouble(jsonKey, (Double) value);
+                    } else if (value instanceof Boolean) {
+                        jsonBundle.putBoolean(jsonKey, (Boolean) value);
+                    } else if (value instanceof String) {
+                        jsonBundle.putString(jsonKey, (String) value);
+                    } else {
+                        // 对于其他类型，保存为字符串
+                        jsonBundle.putString(jsonKey, value.toString());
+                    }
+                }
+                return new Entry(key, BUNDLE, jsonBundle);
+            }
+            if (jsonValue.startsWith("[")) {
+                JSONArray jsonArray = new JSONArray(jsonValue);
+                ArrayList<String> list = new ArrayList<>(jsonArray.length());
+                for (int i = 0; i < jsonArray.length(); i++) {
+                    list.add(String.valueOf(jsonArray.get(i)));
+                }
+                return new Entry(key, STRING_LIST, list);
+            }
+            // 前面有空白字符时不处理
+            return null;
+        } catch (JSONException e) {
+            return new Entry(key, STRING, jsonValue);
+        }
+    }
+
+    private static Entry normalEntry(String key, String value) {
+        if ("true".equalsIgnoreCase(value)) {
+            return new Entry(key, BOOLEAN, Boolean.TRUE);
+        } else if ("false".equalsIgnoreCase(value)) {
+            return new Entry(key, BOOLEAN, Boolean.FALSE);
+        }
+        // 整数字面量：-?\d+
+        if (isInteger(value, false)) {
+            switch (integerType(value)) {
+                case INT:
+                    return new Entry(key, INT, Integer.parseInt(value));
+                case LONG:
+                    return new Entry(key, LONG, Long.parseLong(value));
+                default:
+                    // 超出long范围，作为字符串
+                    return new Entry(key, STRING, value);
+            }
+        }
+        // 小数字面量：-?\d+\.\d+
+        if (isPlainDecimal(value)) {
+            return new Entry(key, FLOAT, Float.parseFloat(value));
+        }
+        return new Entry(key, STRING, value);
+    }
+
+    /**
+     * 依次尝试整数、长整数、浮点数、布尔数组，都不符合时作为字符串数组
+     */
+    private static Entry arrayEntry(String key, String[] values) {
+        int type = INT;
+        for (String value : values) {
+            if (!isInteger(value, true)) {
+                type = -1;
+                break;
+            }
+            int integerType = integerType(value);
+            if (integerType == STRING) {
+                type = -1;
+                break;
+            }
+            if (integerType == LONG) {
+                type = LONG;
+            }
+        }
+        if (type == INT) {
+            int[] array = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                array[i] = Integer.parseInt(values[i]);
+            }
+            return new Entry(key, INT_ARRAY, array);
+        }
+        if (type == LONG) {
+            long[] array = new long[values.length];
+            for (int i = 0; i < values.length; i++) {
+                array[i] = Long.parseLong(values[i]);
+            }
+            return new Entry(key, LONG_ARRAY, array);
+        }
+
+        boolean allFloat = true;
+        for (String value : values) {
+            if (!isFloatLiteral(value)) {
+                allFloat = false;
+                break;
+            }
+        }
+        if (allFloat) {
+            float[] array = new float[values.length];
+            for (int i = 0; i < values.length; i++) {
+                array[i] = Float.parseFloat(values[i]);
+            }
+            return new Entry(key, FLOAT_ARRAY, array);
+        }
+
+        // 布尔数组转换为字节数组存储（Bundle不直接支持boolean[]）
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            if ("true".equalsIgnoreCase(values[i]) || "1".equals(values[i])) {
+                bytes[i] = 1;
+            } else if ("false".equalsIgnoreCase(values[i]) || "0".equals(values[i])) {
+                bytes[i] = 0;
+            } else {
+                return new Entry(key, STRING_ARRAY, values);
+            }
+        }
+        return new Entry(key, BYTE_ARRAY, bytes);
+    }
+
+    // endregion
+
+    // region withUrl 规则
+
+    private static Entry simpleEntry(String key, String value) {
+        if ("true".equalsIgnoreCase(value)) {
+            return new Entry(key, BOOLEAN, Boolean.TRUE);
+        } else if ("false".equalsIgnoreCase(value)) {
+            return new Entry(key, BOOLEAN, Boolean.FALSE);
+        }
+
+        // 移除Long类型的"L"后缀
+        String longValue = value;
+        boolean hasLongSuffix = false;
+        int length = value.length();
+        if (length > 0 && (value.charAt(length - 1) == 'l' || value.charAt(length - 1) == 'L')) {
+            longValue = value.substring(0, length - 1);
+            hasLongSuffix = true;
+        }
+
+        // 整数模式（不含小数部分）
+        if (isInteger(longValue, true)) {
+            if (isInIntegerRange(longValue)) {
+                return new Entry(key, INT, Integer.parseInt(longValue));
+            }
+            // 带后缀时最多18位，超出long范围的作为字符串
+            int digits = longValue.length() - (Character.isDigit(longValue.charAt(0)) ? 0 : 1);
+            if ((!hasLongSuffix || digits <= 18) && integerType(longValue) != STRING) {
+                return new Entry(key, LONG, Long.parseLong(longValue));
+            }
+        }
+
+        // 浮点模式（包含小数或指数）：[+-]?\d*\.\d+([eE][+-]?\d+)?
+        if (isDecimalWithExponent(value)) {
+            double d = Double.parseDouble(value);
+            float f = (float) d;
+            // 可以用Float精确表示时使用Float，否则使用Double
+            return d == f ? new Entry(key, FLOAT, f) : new Entry(key, DOUBLE, d);
+        }
+        return new Entry(key, STRING, value);
+    }
+
+    /**
+     * 检查字符串是否在Integer范围内
+     */
+    private static boolean isInIntegerRange(String value) {
+        if (value.startsWith("-")) {
+            if (value.length() < 11) return true;
+            if (value.length() > 11) return false;
+            return value.compareTo(String.valueOf(Integer.MIN_VALUE)) <= 0;
+        } else {
+            if (value.startsWith("+")) value = value.substring(1);
+            if (value.length() < 10) return true;
+            if (value.length() > 10) return false;
+            return value.compareTo(String.valueOf(Integer.MAX_VALUE)) <= 0;
+        }
+    }
+
+    // endregion
+
+    // region 字符判断
+
+    /**
+     * [+-]?\d+，allowPlus 为 false 时只允许 "-"
+     */
+    private static boolean isInteger(String value, boolean allowPlus) {
+        int length = value.length();
+        int i = 0;
+        if (length > 0 && (value.charAt(0) == '-' || (allowPlus && value.charAt(0) == '+'))) {
+            i = 1;
+        }
+        if (i == length) {
+            return false;
+        }
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 已确认是整数的字符串可以用哪种类型表示
+     *
+     * @return {@link #INT}、{@link #LONG}，超出long范围时为 {@link #STRING}
+     */
+    private static int integerType(String value) {
+        boolean negative = value.charAt(0) == '-';
+        int start = Character.isDigit(value.charAt(0)) ? 0 : 1;
+        while (start < value.length() - 1 && value.charAt(start) == '0') {
+            start++;
+        }
+        String digits = value.substring(start);
+        if (fits(digits, negative ? "2147483648" : "2147483647")) {
+            return INT;
+        }
+        if (fits(digits, negative ? "9223372036854775808" : "9223372036854775807")) {
+            return LONG;
+        }
+        return STRING;
+    }
+
+    private static boolean fits(String digits, String limit) {
+        if (digits.length() != limit.length()) {
+            return digits.length() < limit.length();
+        }
+        return digits.compareTo(limit) <= 0;
+    }
+
+    /**
+     * -?\d+\.\d+
+     */
+    private static boolean isPlainDecimal(String value) {
+        int length = value.length();
+        int i = length > 0 && value.charAt(0) == '-' ? 1 : 0;
+        int intDigits = 0;
+        while (i < length && isDigit(value.charAt(i))) {
+            i++;
+            intDigits++;
+        }
+        if (intDigits == 0 || i == length || value.charAt(i) != '.') {
+            return false;
+        }
+        i++;
+        int fractionDigits = 0;
+        while (i < length && isDigit(value.charAt(i))) {
+            i++;
+            fractionDigits++;
+        }
+        return fractionDigits > 0 && i == length;
+    }
+
+    /**
+     * [+-]?\d*\.\d+([eE][+-]?\d+)?
+     */
+    private static boolean isDecimalWithExponent(String value) {
+        int length = value.length();
+        int i = length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+') ? 1 : 0;
+        while (i < length && isDigit(value.charAt(i))) i++;
+        if (i == length || value.charAt(i) != '.') {
+            return false;
+        }
+        i++;
+        int fractionStart = i;
+        while (i < length && isDigit(value.charAt(i))) i++;
+        if (i == fractionStart) {
+            return false;
+        }
+        if (i == length) {
+            return true;
+        }
+        return isExponent(value, i);
+    }
+
+    /**
+     * Float.parseFloat 可以解析的十进制数：前后可以有空白，[+-]?(\d+\.?\d*|\.\d+)([eE][+-]?\d+)?[fFdD]?，
+     * 以及 NaN、Infinity；不支持十六进制浮点数
+     */
+    private static boolean isFloatLiteral(String value) {
+        String trimmed = value.trim();
+        int length = trimmed.length();
+        int i = length > 0 && (trimmed.charAt(0) == '-' || trimmed.charAt(0) == '+') ? 1 : 0;
+        String rest = trimmed.substring(i);
+        if (rest.equals("NaN") || rest.equals("Infinity")) {
+            return true;
+        }
+        if (length > i) {
+            char last = trimmed.charAt(length - 1);
+            if (last == 'f' || last == 'F' || last == 'd' || last == 'D') {
+                length--;
+            }
+        }
+        int digits = 0;
+        while (i < length && isDigit(trimmed.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < length && trimmed.charAt(i) == '.') {
+            i++;
+            while (i < length && isDigit(trimmed.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        return i == length || isExponent(trimmed.substring(0, length), i);
+    }
+
+    /**
+     * 从 start 开始到结尾是否为 [eE][+-]?\d+
+     */
+    private static boolean isExponent(String value, int start) {
+        int length = value.length();
+        int i = start;
+        if (value.charAt(i) != 'e' && value.charAt(i) != 'E') {
+            return false;
+        }
+        i++;
+        if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == length) {
+            return false;
+        }
+        for (; i < length; i++) {
+            if (!isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // endregion
+
+    private static Map<String, UrlQuery> newCache() {
+        return new LinkedHashMap<String, UrlQuery>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UrlQuery> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+    }
+
+    /**
+     * 一个解析好的参数
+     */
+    private static final class Entry {
+        final String key;
+        final int type;
+        final Object value;
+
+        Entry(String key, int type, Object value) {
+            this.key = key;
+            this.type = type;
+            this.value = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        void putInto(Bundle extras) {
+            switch (type) {
+                case BOOLEAN:
+                    extras.putBoolean(key, (Boolean) value);
+                    break;
+                case INT:
+                    extras.putInt(key, (Integer) value);
+                    break;
+                case LONG:
+                    extras.putLong(key, (Long) value);
+                    break;
+                case FLOAT:
+                    extras.putFloat(key, (Float) value);
+                    break;
+                case DOUBLE:
+                    extras.putDouble(key, (Double) value);
+                    break;
+                case STRING:
+                    extras.putString(key, (String) value);
+                    break;
+                case BUNDLE:
+                    Bundle bundle = new Bundle();
+                    bundle.putAll((Bundle) value);
+                    extras.putBundle(key, bundle);
+                    break;
+                case STRING_LIST:
+                    extras.putStringArrayList(key, new ArrayList<>((List<String>) value));
+                    break;
+                case INT_ARRAY:
+                    extras.putIntArray(key, ((int[]) value).clone());
+                    break;
+                case LONG_ARRAY:
+                    extras.putLongArray(key, ((long[]) value).clone());
+                    break;
+                case FLOAT_ARRAY:
+                    extras.putFloatArray(key, ((float[]) value).clone());
+                    break;
+                case BYTE_ARRAY:
+                    extras.putByteArray(key, ((byte[]) value).clone());
+                    break;
+                case STRING_ARRAY:
+                    extras.putStringArray(key, ((String[]) value).clone());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
@@ -9,7 +9,7 @@ import com.bumptech.glide.load.model.MultiModelLoaderFactory;
 import java.io.InputStream;
 
 import okhttp3.Call;
-import okhttp3.OkHttpClient;
+import pers.sweven.common.repository.OkHttpClientFactory;
 
 /**
  * A simple model loader for fetching media over http/https using OkHttp.
@@ -45,7 +45,8 @@ public class OkHttpUrlLoader implements ModelLoader<GlideUrl, InputStream> {
             if (internalClient == null) {
                 synchronized (Factory.class) {
                     if (internalClient == null) {
-                        internalClient = new OkHttpClient();
+                        // 与接口请求共享连接池与线程池
+                        internalClient = OkHttpClientFactory.root();
                     }
                 }
             }
@@ -0,0 +1,197 @@
+package pers.sweven.common.repository;
+
+import android.content.Context;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * 统一创建 OkHttpClient
+ *
+ * <p>所有客户端都通过 {@link #newBuilder()} 从同一个根客户端派生，共享连接池、Dispatcher 的线程池和 HTTP 缓存，
+ * 接口、下载、图片加载之间可以复用连接和 TLS 会话，也不会各自创建一套线程。
+ * 派生的客户端可以单独设置拦截器、超时、证书等，互不影响。
+ *
+ * <pre>{@code
+ * // Application.onCreate 中，第一次使用之前配置（可选）
+ * OkHttpClientFactory.configure(new OkHttpClientFactory.Config.Builder()
+ *         .maxIdleConnections(8)
+ *         .maxRequestsPerHost(10)
+ *         .build());
+ *
+ * OkHttpClient client = OkHttpClientFactory.newBuilder()
+ *         .addInterceptor(new HeaderInterceptor(headers))
+ *         .build();
+ * }</pre>
+ */
+public final class OkHttpClientFactory {
+    private static volatile Config config = new Config.Builder().build();
+    private static volatile OkHttpClient root;
+    private static volatile Cache cache;
+
+    private OkHttpClientFactory() {
+    }
+
+    /**
+     * 设置根客户端的配置，需要在第一次创建客户端之前调用
+     *
+     * @param config 配置
+     * @throws IllegalStateException 根客户端已经创建
+     */
+    public static void configure(@NotNull Config config) {
+        synchronized (OkHttpClientFactory.class) {
+            if (root != null) {
+                throw new IllegalStateException("OkHttpClientFactory.configure() must be called before the first client is created");
+            }
+            OkHttpClientFactory.config = config;
+        }
+    }
+
+    /**
+     * 根客户端，没有拦截器，超时等设置为 OkHttp 的默认值
+     */
+    public static OkHttpClient root() {
+        if (root == null) {
+            synchronized (OkHttpClientFactory.class) {
+                if (root == null) {
+                    root = createRoot(config);
+                }
+            }
+        }
+        return root;
+    }
+
+    /**
+     * 从根客户端派生新的客户端，共享连接池与 Dispatcher
+     */
+    public static OkHttpClient.Builder newBuilder() {
+        return root().newBuilder();
+    }
+
+    /**
+     * 共享的 HTTP 缓存，同一目录只能由一个 Cache 实例管理
+     *
+     * @param context 上下文，使用 cacheDir/cache 目录
+     */
+    public static Cache cache(@NotNull Context context) {
+        if (cache == null) {
+            synchronized (OkHttpClientFactory.class) {
+                if (cache == null) {
+                    File cacheFile = new File(context.getApplicationContext().getCacheDir(), "cache");
+                    cache = new Cache(cacheFile, config.cacheSize);
+                }
+            }
+        }
+        return cache;
+    }
+
+    private static OkHttpClient createRoot(Config config) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(config.maxRequests);
+        dispatcher.setMaxRequestsPerHost(config.maxRequestsPerHost);
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(config.maxIdleConnections,
+                        config.keepAliveDuration, TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .pingInterval(config.pingInterval, TimeUnit.MILLISECONDS);
+        if (config.http2) {
+            builder.protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+        } else {
+            builder.protocols(Collections.singletonList(Protocol.HTTP_1_1));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 根客户端的配置
+     */
+    public static final class Config {
+        // 连接池中最多保留的空闲连接数
+        final int maxIdleConnections;
+        // 空闲连接保留的时间，毫秒
+        final long keepAliveDuration;
+        // 异步请求的最大并发数
+        final int maxRequests;
+        // 同一主机的异步请求最大并发数
+        final int maxRequestsPerHost;
+        // 是否启用 HTTP/2，关闭时只使用 HTTP/1.1
+        final boolean http2;
+        // HTTP/2 与 WebSocket 的 ping 间隔，毫秒，0 为不发送
+        final long pingInterval;
+        // 共享 HTTP 缓存的大小，字节
+        final long cacheSize;
+
+        private Config(Builder builder) {
+            this.maxIdleConnections = builder.maxIdleConnections;
+            this.keepAliveDuration = builder.keepAliveDuration;
+            this.maxRequests = builder.maxRequests;
+            this.maxRequestsPerHost = builder.maxRequestsPerHost;
+            this.http2 = builder.http2;
+            this.pingInterval = builder.pingInterval;
+            this.cacheSize = builder.cacheSize;
+        }
+
+        /**
+         * 默认值与 OkHttp 一致：5 个空闲连接保留 5 分钟，并发 64，同一主机并发 5，启用 HTTP/2；缓存 50MB
+         */
+        public static final class Builder {
+            private int maxIdleConnections = 5;
+            private long keepAliveDuration = TimeUnit.MINUTES.toMillis(5);
+            private int maxRequests = 64;
+            private int maxRequestsPerHost = 5;
+            private boolean http2 = true;
+            private long pingInterval = 0;
+            private long cacheSize = 1024 * 1024 * 50;
+
+            public Builder maxIdleConnections(int maxIdleConnections) {
+                this.maxIdleConnections = maxIdleConnections;
+                return this;
+            }
+
+            public Builder keepAliveDuration(long duration, TimeUnit unit) {
+                this.keepAliveDuration = unit.toMillis(duration);
+                return this;
+            }
+
+            public Builder maxRequests(int maxRequests) {
+                this.maxRequests = maxRequests;
+                return this;
+            }
+
+            public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+                this.maxRequestsPerHost = maxRequestsPerHost;
+                return this;
+            }
+
+            public Builder http2(boolean enabled) {
+                this.http2 = enabled;
+                return this;
+            }
+
+            public Builder pingInterval(long interval, TimeUnit unit) {
+                this.pingInterval = unit.toMillis(interval);
+                return this;
+            }
+
+            public Builder cacheSize(long cacheSize) {
+                this.cacheSize = cacheSize;
+                return this;
+            }
+
+            public Config build() {
+                return new Config(this);
+            }
+        }
+    }
+}
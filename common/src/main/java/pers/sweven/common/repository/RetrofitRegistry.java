@@ -0,0 +1,164 @@
+package pers.sweven.common.repository;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.reactivex.schedulers.Schedulers;
+import okhttp3.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * 按 baseUrl 缓存 Retrofit 实例与接口代理
+ *
+ * <p>同一个 registry 中的 Retrofit 共享同一个 OkHttp 客户端和同一组 Converter / CallAdapter，
+ * 每个 baseUrl 只创建一次 Retrofit，每个接口只创建一次代理，不会重复解析接口方法。
+ *
+ * <p>Retrofit 以 validateEagerly 创建，接口的所有方法在第一次获取代理时解析完成；
+ * 启动时调用 {@link #warmUp(String, Class[])} 可以在后台线程提前完成解析，主线程第一次请求时直接使用缓存。
+ *
+ * <pre>{@code
+ * RetrofitRegistry registry = new RetrofitRegistry.Builder()
+ *         .client(OkHttpClientFactory.newBuilder().build())
+ *         .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
+ *         .addConverterFactory(GsonConverterBodyFactory.create())
+ *         .build();
+ * registry.warmUp(BASE_URL, ApiService.class);
+ * ApiService api = registry.service(BASE_URL, ApiService.class);
+ * }</pre>
+ */
+public final class RetrofitRegistry {
+    private final Call.Factory client;
+    private final List<Converter.Factory> converterFactories;
+    private final List<CallAdapter.Factory> callAdapterFactories;
+    private final ConcurrentHashMap<String, Retrofit> retrofits = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentHashMap<Class<?>, Object>> services = new ConcurrentHashMap<>();
+
+    private RetrofitRegistry(Builder builder) {
+        this.client = builder.client;
+        this.converterFactories = new ArrayList<>(builder.converterFactories);
+        this.callAdapterFactories = new ArrayList<>(builder.callAdapterFactories);
+    }
+
+    /**
+     * 获取 baseUrl 对应的 Retrofit，不存在时创建
+     *
+     * @param baseUrl 接口地址，以 "/" 结尾
+     */
+    public Retrofit retrofit(@NotNull String baseUrl) {
+        Retrofit retrofit = retrofits.get(baseUrl);
+        if (retrofit == null) {
+            Retrofit.Builder builder = new Retrofit.Builder()
+                    .baseUrl(baseUrl)
+                    .callFactory(client)
+                    .validateEagerly(true);
+            for (CallAdapter.Factory factory : callAdapterFactories) {
+                builder.addCallAdapterFactory(factory);
+            }
+            for (Converter.Factory factory : converterFactories) {
+                builder.addConverterFactory(factory);
+            }
+            // 并发时可能重复创建，只保留先放入的实例
+            Retrofit created = builder.build();
+            retrofit = retrofits.putIfAbsent(baseUrl, created);
+            if (retrofit == null) {
+                retrofit = created;
+            }
+        }
+        return retrofit;
+    }
+
+    /**
+     * 获取接口代理，不存在时创建
+     *
+     * @param baseUrl 接口地址，以 "/" 结尾
+     * @param service 接口类
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T service(@NotNull String baseUrl, @NotNull Class<T> service) {
+        ConcurrentHashMap<Class<?>, Object> proxies = services.get(baseUrl);
+        if (proxies == null) {
+            ConcurrentHashMap<Class<?>, Object> created = new ConcurrentHashMap<>();
+            proxies = services.putIfAbsent(baseUrl, created);
+            if (proxies == null) {
+                proxies = created;
+            }
+        }
+        Object proxy = proxies.get(service);
+        if (proxy == null) {
+            Object created = retrofit(baseUrl).create(service);
+            proxy = proxies.putIfAbsent(service, created);
+            if (proxy == null) {
+                proxy = created;
+            }
+        }
+        return (T) proxy;
+    }
+
+    /**
+     * 在后台线程提前创建 Retrofit 与接口代理，解析接口方法
+     *
+     * @param baseUrl  接口地址，以 "/" 结尾
+     * @param services 接口类
+     */
+    public void warmUp(@NotNull final String baseUrl, @NotNull final Class<?>... services) {
+        Schedulers.io().scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                for (Class<?> service : services) {
+                    try {
+                        service(baseUrl, service);
+                    } catch (Exception e) {
+                        // 接口定义有误时在正式使用时再抛出
+                        e.printStackTrace();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 移除 baseUrl 对应的 Retrofit 与接口代理，例如切换环境后
+     *
+     * @param baseUrl 接口地址
+     */
+    public void remove(@NotNull String baseUrl) {
+        services.remove(baseUrl);
+        retrofits.remove(baseUrl);
+    }
+
+    public static final class Builder {
+        private Call.Factory client;
+        private final List<Converter.Factory> converterFactories = new ArrayList<>();
+        private final List<CallAdapter.Factory> callAdapterFactories = new ArrayList<>();
+
+        /**
+         * 所有 Retrofit 共享的客户端，默认为 {@link OkHttpClientFactory#root()}
+         */
+        public Builder client(@NotNull Call.Factory client) {
+            this.client = client;
+            return this;
+        }
+
+        public Builder addConverterFactory(@NotNull Converter.Factory factory) {
+            converterFactories.add(factory);
+            return this;
+        }
+
+        public Builder addCallAdapterFactory(@NotNull CallAdapter.Factory factory) {
+            callAdapterFactories.add(factory);
+            return this;
+        }
+
+        public RetrofitRegistry build() {
+            if (client == null) {
+                client = OkHttpClientFactory.root();
+            }
+            return new RetrofitRegistry(this);
+        }
+    }
+}
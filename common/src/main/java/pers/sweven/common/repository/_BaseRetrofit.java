@@ -1,14 +1,12 @@
 package pers.sweven.common.repository;
 
 import android.annotation.SuppressLint;
-import android.util.Log;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.JsonParseException;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.io.File;
 import java.io.IOException;
 import java.security.SecureRandom;
 import java.security.cert.CertificateException;
@@ -23,12 +21,13 @@ import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 
+import io.reactivex.schedulers.Schedulers;
 import okhttp3.Cache;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
-import okhttp3.logging.HttpLoggingInterceptor;
+import okhttp3.ResponseBody;
 import pers.sweven.common.GlobalApp;
 import pers.sweven.common.repository.converter.GsonConverterBodyFactory;
 import pers.sweven.common.repository.cookie.CookieJarImpl;
@@ -37,6 +36,7 @@ import pers.sweven.common.repository.exception.ApiException;
 import pers.sweven.common.repository.exception.ExceptionEntity;
 import pers.sweven.common.repository.interceptor.CacheInterceptor;
 import pers.sweven.common.repository.interceptor.HeaderInterceptor;
+import pers.sweven.common.repository.interceptor.LogInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
 
@@ -45,7 +45,8 @@ import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
  */
 public class _BaseRetrofit {
     public static OkHttpClient client;
-    private static volatile Retrofit retrofit;
+    // 按 baseUrl 缓存的 Retrofit 与接口代理，共享 client
+    private static volatile RetrofitRegistry registry;
 
     /**
      * 配置网络请求头
@@ -71,43 +72,67 @@ public class _BaseRetrofit {
         return parameters;
     }
 
+    /**
+     * 获取 baseUrl 对应的 Retrofit，不同的 baseUrl 各自缓存，共享同一个 client
+     */
     public static Retrofit getRetrofit(String baseUrl) {
-        if (retrofit == null) {
+        return getRegistry().retrofit(baseUrl);
+    }
+
+    /**
+     * 获取接口代理，同一 baseUrl 的同一接口只创建一次
+     */
+    public static <T> T getService(String baseUrl, Class<T> service) {
+        return getRegistry().service(baseUrl, service);
+    }
+
+    /**
+     * 启动时在后台线程提前创建客户端并解析接口，SSLContext、Cookie、Cache 等都不在调用线程上创建
+     */
+    public static void warmUp(final String baseUrl, final Class<?>... services) {
+        Schedulers.io().scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                getRegistry().warmUp(baseUrl, services);
+            }
+        });
+    }
+
+    public static RetrofitRegistry getRegistry() {
+        if (registry == null) {
             synchronized (_BaseRetrofit.class) {
-                if (retrofit == null) {
-                    //添加一个log拦截器,打印所有的log
-                    HttpLoggingInterceptor httpLoggingInterceptor = new HttpLoggingInterceptor();
-                    //可以设置请求过滤的水平,body,basic,headers
-                    httpLoggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-                    //设置 请求的缓存的大小跟位置
-                    File cacheFile = new File(GlobalApp.getInstance().getApplication().getCacheDir(), "cache");
-                    Cache cache = new Cache(cacheFile, 1024 * 1024 * 50); //50Mb 缓存的大小
-
-                    client = new OkHttpClient
-                            .Builder()
+                if (registry == null) {
+                    //添加一个log拦截器,debug 打印所有的log,release 不打印
+                    LogInterceptor logInterceptor = new LogInterceptor.Builder(GlobalApp.getInstance().getApplication())
+                            .build();
+                    //设置 请求的缓存的大小跟位置，与其他客户端共享
+                    Cache cache = OkHttpClientFactory.cache(GlobalApp.getInstance().getApplication());
+                    CacheInterceptor cacheInterceptor = new CacheInterceptor(GlobalApp.getInstance().getApplication());
+
+                    // 从共享的根客户端派生，复用连接池与线程池
+                    client = OkHttpClientFactory.newBuilder()
                             .connectTimeout(60000, TimeUnit.MILLISECONDS)
                             .readTimeout(60000, TimeUnit.MILLISECONDS)
-                            .addInterceptor(httpLoggingInterceptor) //日志,所有的请求响应
+                            // 在日志拦截器之外处理错误码，日志拦截器先记录错误响应的内容
+                            .addInterceptor(new ExceptionInterceptor())
+                            .addInterceptor(logInterceptor) //日志,所有的请求响应
 //                            .addInterceptor(new HeaderInterceptor(getRequestHeader())) // token过滤
 //                            .addInterceptor(new ParameterInterceptor(getRequestParams()))  //公共参数添加
-                            .addInterceptor(new CacheInterceptor(GlobalApp.getInstance().getApplication()))
+                            .addInterceptor(cacheInterceptor) //按 @CachePolicy 读写缓存,无网络时只读缓存
                             .addInterceptor(new HeaderInterceptor(getRequestHeader()))
                             //不加以下两行代码,https请求不到自签名的服务器
                             .sslSocketFactory(createSSLSocketFactory(), new TrustAllCerts())//创建一个证书对象
                             .hostnameVerifier(new TrustAllHostnameVerifier())//校验名称,这个对象就是信任所有的主机,也就是信任所有https的请求
                             .cache(cache)  //添加缓存
+                            .addNetworkInterceptor(cacheInterceptor.networkInterceptor())
                             .connectTimeout(15, TimeUnit.SECONDS)//连接超时时间
                             .readTimeout(15, TimeUnit.SECONDS)//读取超时时间
                             .writeTimeout(15, TimeUnit.SECONDS)//写入超时时间
                             .retryOnConnectionFailure(true)//连接不上是否重连,false不重连
                             .cookieJar(new CookieJarImpl(new PersistentCookieStore(GlobalApp.getInstance().getApplication())))
-                            .addInterceptor(new ExceptionInterceptor())
                             .build();
 
-                    // 获取retrofit的实例
-                    retrofit = new Retrofit
-                            .Builder()
-                            .baseUrl(baseUrl) //baseUrl配置
+                    registry = new RetrofitRegistry.Builder()
                             .client(client)
                             .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
                             .addConverterFactory(GsonConverterBodyFactory.create())
@@ -115,7 +140,7 @@ public class _BaseRetrofit {
                 }
             }
         }
-        return retrofit;
+        return registry;
     }
 
     /**
@@ -141,6 +166,7 @@ public class _BaseRetrofit {
      * 拦截处理器，建议使用ApiException
      */
     public static class ExceptionInterceptor implements Interceptor {
+        private static final Gson GSON = new Gson();
 
         @NotNull
         @Override
@@ -152,12 +178,18 @@ public class _BaseRetrofit {
             if (code == 200) {
                 return response;
             } else if (code == 225 || code == 215 || code == 218) {
-                String content = new String(response.body().bytes());
-                Log.i("okhttp.OkHttpClient", content + "/n <-- END HTTP ERROR");
-                ExceptionEntity entity;
-                try {
-                    entity = new Gson().fromJson(content, ExceptionEntity.class);
-                } catch (JsonSyntaxException ignore) {
+                ExceptionEntity entity = null;
+                ResponseBody body = response.body();
+                if (body != null) {
+                    // 直接从流中解析，不复制为字符串；错误内容已由内层的日志拦截器记录
+                    try {
+                        entity = GSON.fromJson(body.charStream(), ExceptionEntity.class);
+                    } catch (JsonParseException ignore) {
+                    } finally {
+                        body.close();
+                    }
+                }
+                if (entity == null) {
                     entity = new ExceptionEntity();
                     entity.setMessage(response.message());
                 }
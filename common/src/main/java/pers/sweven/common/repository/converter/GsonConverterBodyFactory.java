@@ -20,18 +20,33 @@ import retrofit2.Retrofit;
  */
 public class GsonConverterBodyFactory extends Converter.Factory {
 
+    private static volatile Gson defaultGson;
     private final Gson gson;
 
     public static GsonConverterBodyFactory create() {
-        GsonBuilder builder = new GsonBuilder()
-                .registerTypeAdapter(String.class, (JsonDeserializer<String>) (json, typeOfT, context) -> {
-                    try {
-                        return json.getAsString();
-                    } catch (Exception e) {
-                        return json.toString();
-                    }
-                });
-        return create(builder);
+        return create(getDefaultGson());
+    }
+
+    /**
+     * 默认配置的 Gson，{@link #create()} 创建的转换器共用该实例，其他需要相同配置的地方也可以直接使用
+     */
+    public static Gson getDefaultGson() {
+        if (defaultGson == null) {
+            synchronized (GsonConverterBodyFactory.class) {
+                if (defaultGson == null) {
+                    defaultGson = new GsonBuilder()
+                            .registerTypeAdapter(String.class, (JsonDeserializer<String>) (json, typeOfT, context) -> {
+                                try {
+                                    return json.getAsString();
+                                } catch (Exception e) {
+                                    return json.toString();
+                                }
+                            })
+                            .create();
+                }
+            }
+        }
+        return defaultGson;
     }
 
     public static GsonConverterBodyFactory create(GsonBuilder builder) {
@@ -49,6 +64,10 @@ public class GsonConverterBodyFactory extends Converter.Factory {
         this.gson = gson;
     }
 
+    public Gson getGson() {
+        return gson;
+    }
+
     @Override
     public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
         TypeAdapter<?> adapter = gson.getAdapter(TypeToken.get(type));
@@ -8,6 +8,7 @@ import io.reactivex.functions.Consumer;
 import io.reactivex.schedulers.Schedulers;
 import okhttp3.OkHttpClient;
 import okhttp3.ResponseBody;
+import pers.sweven.common.repository.OkHttpClientFactory;
 import pers.sweven.common.repository.interceptor.ProgressInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
@@ -57,7 +58,7 @@ public class DownLoadManager {
     }
 
     private void buildNetWork(String baseUrl) {
-        OkHttpClient okHttpClient = new OkHttpClient.Builder()
+        OkHttpClient okHttpClient = OkHttpClientFactory.newBuilder()
                 .addInterceptor(new ProgressInterceptor())
                 .connectTimeout(20, TimeUnit.SECONDS)
                 .build();
@@ -1,7 +1,6 @@
 package pers.sweven.common.repository.entity.request
 
 import androidx.lifecycle.MutableLiveData
-import java.lang.reflect.Field
 import kotlin.reflect.KClass
 
 /**
@@ -94,11 +93,11 @@ open class BaseBody {
     // 将对象的所有字段转换为一个包含任意类型值的 HashMap
     fun toBody(): HashMap<String, Any> {
         // 调用 processAllFields 方法，并传入一个 lambda 表达式，直接返回字段的值
-        return processAllFields { _, _, any -> any }
+        return processAllFields { _, any -> any }
     }
 
     fun toStringBody(): HashMap<String, String> {
-        return processAllFields { _, _, any -> any?.toString() ?: "" }
+        return processAllFields { _, any -> any?.toString() ?: "" }
     }
 
     /**
@@ -107,19 +106,14 @@ open class BaseBody {
      * @return [HashMap<String, String>]
      */
     fun checkNullByDesc(vararg exceptName: String): HashMap<String, String> {
-        return processAllFields { field, _, value ->
-            // 获取字段上的 Param 注解
-            val param = field.getAnnotation(BodyParam::class.java)
-            // 如果注解为空、字段不应该被添加或者值不满足添加条件，则返回 null
-            if (param == null || !shouldAddField(param) || !shouldAddValue(param, value)) {
-                return@processAllFields null
-            }
+        // 计划中只有 isAdd=true 的字段，且值已满足添加条件
+        return processAllFields { field, value ->
             // 检查注解中的描述是否不为空，字段名不在排除列表中，且值在 noAdd 列表中
-            param.takeIf {
-                it.desc.isNotEmpty() &&
+            field.desc.takeIf {
+                it.isNotEmpty() &&
                         !exceptName.contains(field.name) &&
-                        it.noAdd.contains(value?.toString())
-            }?.desc
+                        field.noAdd.contains(value?.toString())
+            }
         }
     }
 
@@ -127,28 +121,21 @@ open class BaseBody {
      * 私有内联泛型方法，用于处理对象及其父类的所有字段
      *
      *
+     * 字段、键名和条件在每个类第一次调用时解析并缓存（见 [BodyFieldPlan]），之后不再查找字段和注解；
+     * 有 common-compiler 生成的字段表时完全不使用反射
+     *
+     *
      * reified T 表示该泛型类型在运行时是可具体化的
      * @param [valueHandler] 是一个函数，用于处理每个字段的值
      * @return [HashMap<String, T>]
      */
-    private inline fun <reified T> processAllFields(crossinline valueHandler: (Field, String, Any?) -> T?): HashMap<String, T> {
-        // 创建一个空的 HashMap 用于存储处理后的键值对
-        val map = hashMapOf<String, T>()
-        // 获取当前对象的类
-        var clazz: Class<*>? = this::class.java
-
-        // 遍历当前类及其所有父类
-        while (clazz != null) {
-            // 遍历当前类的所有声明字段
-            clazz.declaredFields.forEach { field ->
-                // 对字段进行同步处理，确保线程安全
-                synchronized(field) {
-                    // 调用 processField 方法处理单个字段
-                    processField(field, map, valueHandler)
-                }
-            }
-            // 获取父类，继续遍历
-            clazz = clazz.superclass
+    private inline fun <reified T> processAllFields(crossinline valueHandler: (ParamField<Any>, Any?) -> T?): HashMap<String, T> {
+        val fields = BodyFieldPlan.of(this::class.java).fields
+        // 创建一个 HashMap 用于存储处理后的键值对
+        val map = HashMap<String, T>(fields.size * 4 / 3 + 1)
+        // 按计划依次处理当前类及其父类的字段
+        for (field in fields) {
+            processField(field, map, valueHandler)
         }
         // 返回处理后的 HashMap
         return map
@@ -156,26 +143,18 @@ open class BaseBody {
 
     /**
      * 私有内联泛型方法，用于处理单个字段
-     * @param [field] 田
+     * @param [field] 字段
      * @param [map] 地图
      * @param [handler] 处理器
      * @return [Boolean]
      */
     private inline fun <reified T> processField(
-        field: Field,
+        field: ParamField<Any>,
         map: MutableMap<String, T>,
-        crossinline handler: (Field, String, Any?) -> T?,
+        crossinline handler: (ParamField<Any>, Any?) -> T?,
     ): Boolean {
         try {
-            // 设置字段的可访问性，以便可以获取私有字段的值
-            field.isAccessible = true
-            // 获取字段上的 Param 注解
-            val param = field.getAnnotation(BodyParam::class.java)
-            // 如果字段不应该被添加，则返回 false
-            if (!shouldAddField(param)) return false
-
-            // 解析字段的键，如果注解中有指定值则使用，否则使用字段名
-            val key = resolveKey(field, param)
+            val key = field.key
             // 获取字段的原始值
             val rawValue = field.get(this)
             // 对原始值进行解包处理
@@ -197,10 +176,10 @@ open class BaseBody {
             }
 
             // 如果值不满足添加条件，则返回 false
-            if (!shouldAddValue(param, value)) return false
+            if (!BodyFieldPlan.shouldAdd(field, value)) return false
 
             // 调用 handler 函数处理字段的值，如果结果不为空，则添加到结果 map 中
-            handler(field, key, value)?.let {
+            handler(field, value)?.let {
                 map[key] = it
                 return true
             }
@@ -212,45 +191,6 @@ open class BaseBody {
         return false
     }
 
-    /**
-     * 判断字段是否应该被添加到结果中
-     * @param [param] 参数
-     * @return [Boolean]
-     */
-    private fun shouldAddField(param: BodyParam?): Boolean {
-        // 如果 Param 注解不为空且 isAdd 属性为 true，则返回 true
-        return param?.isAdd == true
-    }
-
-    /**
-     * 判断字段的值是否应该被添加到结果中
-     * @param [param] 参数
-     * @param [value] 价值
-     * @return [Boolean]
-     */
-    private fun shouldAddValue(param: BodyParam?, value: Any?): Boolean {
-        // 如果注解中有指定条件类
-        param?.condition?.let { conditionClass ->
-            // 创建条件类的实例
-            val condition = conditionClass.java.newInstance()
-            // 如果条件类的 shouldAdd 方法返回 false，则返回 false
-            if (!condition.shouldAdd(value)) return false
-        }
-        // 如果值不在注解的 noAdd 列表中，则返回 true
-        return param?.noAdd?.contains(value?.toString() ?: "") != true
-    }
-
-    /**
-     * 解析字段的键，如果注解中有指定值则使用，否则使用字段名
-     * @param [field] 田
-     * @param [param] 参数
-     * @return [String]
-     */
-    private fun resolveKey(field: Field, param: BodyParam?): String {
-        return param?.value?.takeIf { it.isNotEmpty() }
-            ?: field.name
-    }
-
     /**
      * 对值进行解包处理，处理 MutableLiveData 和 Collection 类型的值
      * @param [value] 价值
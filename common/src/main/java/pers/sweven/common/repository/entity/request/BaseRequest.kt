@@ -4,6 +4,7 @@ import androidx.lifecycle.MutableLiveData
 import com.google.gson.annotations.SerializedName
 import pers.sweven.common.repository.entity.request.BaseRequest.Param
 import java.lang.reflect.Field
+import java.lang.reflect.Modifier
 import kotlin.reflect.KClass
 
 
@@ -47,6 +48,9 @@ open class BaseRequest {
 
     /**
      * 核心收集方法（使用泛型统一处理逻辑）
+     *
+     * 字段按类缓存（见 [RequestFieldPlan]），有 common-compiler 生成的字段表时不使用反射；
+     * 子类重写了 [intercept] 时需要字段注解，仍逐个字段反射处理
      * @param superClazz 是否包含父类参数
      * @param valueConverter 值转换器函数（用于处理不同类型的数据转换）
      * @return 收集完成的参数映射表
@@ -60,15 +64,49 @@ open class BaseRequest {
         // 获取需要处理的类层次结构（当前类或包括父类）
         val classes = if (superClazz) generateSuperClasses() else listOf(javaClass)
 
-        // 遍历所有类收集字段
+        if (RequestFieldPlan.overridesIntercept(javaClass)) {
+            // 遍历所有类收集字段
+            classes.forEach { clazz ->
+                clazz.declaredFields.forEach { field ->
+                    if (Modifier.isStatic(field.modifiers) || field.isSynthetic) return@forEach
+                    addToMap(field, map, valueConverter)
+                }
+            }
+            return map
+        }
+
         classes.forEach { clazz ->
-            clazz.declaredFields.forEach { field ->
+            RequestFieldPlan.of(clazz).forEach { field ->
                 addToMap(field, map, valueConverter)
             }
         }
         return map
     }
 
+    /**
+     * 按字段计划处理单个字段，过滤规则与 [intercept] 的默认实现一致
+     * @param field 字段
+     * @param map 收集到的参数映射表
+     * @param valueConverter 值转换器函数（用于处理不同类型的数据转换）
+     */
+    private inline fun <T> addToMap(
+        field: ParamField<Any>,
+        map: MutableMap<String, T>,
+        valueConverter: (Any?) -> T?
+    ) {
+        // 获取字段值（包含LiveData特殊处理）
+        val rawValue = field.get(this).let {
+            if (it is MutableLiveData<*>) it.value else it
+        }
+        val value = field.converter?.convert(rawValue) ?: rawValue
+        // 检查值是否在排除列表中
+        if (value != null && field.noAdd.contains(value.toString())) return
+
+        valueConverter(value)?.let { convertedValue ->
+            map[field.key] = convertedValue
+        }
+    }
+
     /**
      * 核心字段处理方法（统一处理映射收集）
      * @param field 待处理字段
@@ -142,7 +180,7 @@ open class BaseRequest {
      * @return 优先使用注解中的别名，否则使用原字段名
      */
     protected fun getFieldName(field: Field): String {
-        return field.getAnnotation(Param::class.java)?.value
+        return field.getAnnotation(Param::class.java)?.value?.takeIf { it.isNotEmpty() }
             ?: field.getAnnotation(SerializedName::class.java)?.value
             ?: field.name
     }
@@ -171,11 +209,8 @@ open class BaseRequest {
      * @return 实例化的值转换器或null
      */
     private fun findConverter(param: Param?): ValueConverter? {
-        return when {
-            param == null -> null
-            param.converter.objectInstance != null -> param.converter.objectInstance!!
-            else -> param.converter.java.newInstance()
-        }
+        // 不使用 KClass.objectInstance，它依赖 kotlin-reflect
+        return param?.converter?.java?.let { Instances.of(it) }
     }
 
     /**
@@ -0,0 +1,104 @@
+package pers.sweven.common.repository.entity.request
+
+import pers.sweven.common.repository.entity.request.BodyHelper.HasJsonObject
+import pers.sweven.common.repository.entity.request.BodyHelper.JsonObjectConverter
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * BodyHelper 的类型转换表
+ *
+ * 每个具体类只在第一次出现时判断一次应如何转换，结果按类缓存，之后直接查表；
+ * 业务类型可以注册自己的转换器，注册的转换器优先于内置规则，对子类同样生效。
+ *
+ * ```
+ * BodyConverterRegistry.register(LocalDate::class.java, object : BodyHelper.JsonObjectConverter {
+ *     override fun convert(value: Any?) = JsonPrimitive(value.toString())
+ * })
+ * ```
+ */
+object BodyConverterRegistry {
+    private val registered = LinkedHashMap<Class<*>, JsonObjectConverter>()
+    private val resolved = ConcurrentHashMap<Class<*>, Dispatch>()
+
+    /**
+     * 注册类型转换器，该类型及其子类的值都会使用它转换
+     * @param [type] 类型
+     * @param [converter] 转换器
+     */
+    @JvmStatic
+    fun register(type: Class<*>, converter: JsonObjectConverter) {
+        synchronized(registered) {
+            registered[type] = converter
+            resolved.clear()
+        }
+    }
+
+    /**
+     * 取消注册类型转换器
+     * @param [type] 类型
+     */
+    @JvmStatic
+    fun unregister(type: Class<*>) {
+        synchronized(registered) {
+            registered.remove(type)
+            resolved.clear()
+        }
+    }
+
+    /**
+     * 查找类型的转换方式
+     */
+    internal fun resolve(type: Class<*>): Dispatch {
+        return resolved[type] ?: synchronized(registered) {
+            resolve0(type).also { resolved[type] = it }
+        }
+    }
+
+    private fun resolve0(type: Class<*>): Dispatch {
+        findRegistered(type)?.let { return Dispatch(Kind.CUSTOM, it) }
+        return when {
+            type == String::class.java -> Dispatch.STRING
+            Number::class.java.isAssignableFrom(type) -> Dispatch.NUMBER
+            type == java.lang.Boolean::class.java -> Dispatch.BOOLEAN
+            type == java.lang.Character::class.java -> Dispatch.CHAR
+            HasJsonObject::class.java.isAssignableFrom(type) -> Dispatch.HAS_JSON_OBJECT
+            List::class.java.isAssignableFrom(type) -> Dispatch.LIST
+            else -> Dispatch.UNSUPPORTED
+        }
+    }
+
+    /**
+     * 依次查找类本身、父类、接口上注册的转换器
+     */
+    private fun findRegistered(type: Class<*>): JsonObjectConverter? {
+        if (registered.isEmpty()) return null
+        var current: Class<*>? = type
+        while (current != null) {
+            registered[current]?.let { return it }
+            current = current.superclass
+        }
+        for ((registeredType, converter) in registered) {
+            if (registeredType.isAssignableFrom(type)) return converter
+        }
+        return null
+    }
+
+    internal enum class Kind {
+        STRING, NUMBER, BOOLEAN, CHAR, HAS_JSON_OBJECT, LIST, CUSTOM, UNSUPPORTED
+    }
+
+    /**
+     * 一个类型的转换方式，[Kind.CUSTOM] 时 [converter] 为注册的转换器
+     */
+    internal class Dispatch(val kind: Kind, val converter: JsonObjectConverter? = null) {
+        companion object {
+            val STRING = Dispatch(Kind.STRING)
+            val NUMBER = Dispatch(Kind.NUMBER)
+            val BOOLEAN = Dispatch(Kind.BOOLEAN)
+            val CHAR = Dispatch(Kind.CHAR)
+            val HAS_JSON_OBJECT = Dispatch(Kind.HAS_JSON_OBJECT)
+            val LIST = Dispatch(Kind.LIST)
+            val UNSUPPORTED = Dispatch(Kind.UNSUPPORTED)
+        }
+    }
+}
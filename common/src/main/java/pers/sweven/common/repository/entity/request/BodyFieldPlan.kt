@@ -0,0 +1,68 @@
+package pers.sweven.common.repository.entity.request
+
+import pers.sweven.common.repository.entity.request.BaseBody.BodyParam
+import java.lang.reflect.Modifier
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * BaseBody 的字段计划
+ *
+ * 每个类只在第一次 toBody() 时遍历一次类及其父类的字段，解析好键名、noAdd 和 Condition 实例，
+ * 之后的调用只按计划读取字段值，不再查找字段和注解。
+ *
+ * 有 common-compiler 生成的字段表（见 [GeneratedFields]）时直接使用，不需要反射；
+ * 否则通过反射生成计划。minSdkVersion 22 不支持 MethodHandle（API 26 起），字段仍通过 Field.get 读取，
+ * 但 setAccessible 只在生成计划时调用一次。
+ */
+internal class BodyFieldPlan private constructor(val fields: Array<ParamField<Any>>) {
+
+    companion object {
+        private val plans = ConcurrentHashMap<Class<*>, BodyFieldPlan>()
+
+        fun of(clazz: Class<*>): BodyFieldPlan {
+            // 并发时可能重复生成，结果相同，不需要加锁
+            return plans[clazz] ?: compile(clazz).also { plans.putIfAbsent(clazz, it) }
+        }
+
+        /**
+         * 判断字段的值是否应该被添加到结果中
+         */
+        fun shouldAdd(field: ParamField<*>, value: Any?): Boolean {
+            val condition = field.condition
+            if (condition != null && !condition.shouldAdd(value)) return false
+            return !field.noAdd.contains(value?.toString() ?: "")
+        }
+
+        /**
+         * 按子类到父类的顺序收集字段，与逐个遍历 declaredFields 时写入 map 的顺序一致
+         */
+        private fun compile(clazz: Class<*>): BodyFieldPlan {
+            val fields = mutableListOf<ParamField<Any>>()
+            var current: Class<*>? = clazz
+            while (current != null && current != BaseBody::class.java) {
+                fields.addAll(generatedFields(current) ?: reflect(current))
+                current = current.superclass
+            }
+            return BodyFieldPlan(fields.toTypedArray())
+        }
+
+        private fun reflect(clazz: Class<*>): List<ParamField<Any>> {
+            val fields = mutableListOf<ParamField<Any>>()
+            clazz.declaredFields.forEach { field ->
+                val param = field.getAnnotation(BodyParam::class.java)
+                if (param == null || !param.isAdd || Modifier.isStatic(field.modifiers)) return@forEach
+                try {
+                    val key = param.value.takeIf { it.isNotEmpty() } ?: field.name
+                    val condition = param.condition.java
+                        .takeIf { it != DefaultCondition::class.java }
+                        ?.let { Instances.of(it) }
+                    fields.add(ReflectedField(field, key, param.noAdd, param.desc, condition, null))
+                } catch (e: Exception) {
+                    // 条件类无法实例化等情况，跳过该字段
+                    e.printStackTrace()
+                }
+            }
+            return fields
+        }
+    }
+}
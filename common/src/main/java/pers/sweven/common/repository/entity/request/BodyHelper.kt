@@ -1,6 +1,15 @@
 package pers.sweven.common.repository.entity.request
 
 import com.google.gson.*
+import com.google.gson.stream.JsonWriter
+import okhttp3.MediaType
+import okhttp3.MediaType.Companion.toMediaTypeOrNull
+import okhttp3.RequestBody
+import okio.Buffer
+import okio.BufferedSink
+import pers.sweven.common.repository.entity.request.BodyConverterRegistry.Dispatch
+import pers.sweven.common.repository.entity.request.BodyConverterRegistry.Kind
+import java.io.OutputStreamWriter
 import java.util.logging.Logger
 
 /**
@@ -133,14 +142,8 @@ class BodyHelper(private val map: HashMap<String, Any?> = hashMapOf()) {
             if (it == null) {
                 return@elementConverter JsonNull.INSTANCE
             }
-            return@elementConverter when (it) {
-                is String -> JsonPrimitive(it)
-                is Number -> JsonPrimitive(it.toString())
-                is Boolean -> JsonPrimitive(it)
-                is Char -> JsonPrimitive(it)
-                is List<*> -> JsonArray().addPrimitiveElement(it)
-                else -> convertPrimitiveElement(it, converter?.func())
-            }
+            // 对象中的数字以字符串表示
+            return@elementConverter toElement(it, BodyConverterRegistry.resolve(it.javaClass), numberAsString = true)
         }
 
         val obj = JsonObject()
@@ -156,6 +159,139 @@ class BodyHelper(private val map: HashMap<String, Any?> = hashMapOf()) {
         return obj
     }
 
+    /**
+     * 流式模式：以 RequestBody 的形式提交参数，在 writeTo 时才把参数直接写入请求流，不构建 JsonObject
+     *
+     * 输出与 [body] 一致；每次 writeTo 都会重新写出当前的参数，长度未知（-1）
+     * @param converter 与 [body] 相同的转换函数
+     * @return Content-Type 为 application/json 的 RequestBody
+     */
+    fun requestBody(converter: ((BodyHelper, Any?) -> JsonElement)? = null): RequestBody {
+        return object : RequestBody() {
+            override fun contentType(): MediaType? = JSON
+
+            override fun writeTo(sink: BufferedSink) {
+                val writer = JsonWriter(OutputStreamWriter(sink.outputStream(), Charsets.UTF_8))
+                writeTo(writer, converter)
+                writer.flush()
+            }
+        }
+    }
+
+    /**
+     * 流式模式：把参数写入 okio [Buffer]，需要知道长度时使用
+     * @param converter 与 [body] 相同的转换函数
+     */
+    fun buffer(converter: ((BodyHelper, Any?) -> JsonElement)? = null): Buffer {
+        val buffer = Buffer()
+        val writer = JsonWriter(OutputStreamWriter(buffer.outputStream(), Charsets.UTF_8))
+        writeTo(writer, converter)
+        writer.flush()
+        return buffer
+    }
+
+    /**
+     * 流式模式：把参数作为一个 JSON 对象写入 [writer]
+     *
+     * 基本类型直接写出，不创建 JsonPrimitive；转换函数、[HasJsonObject] 返回的 JsonElement 仍按原样写出。
+     * 无法转换的值与 [body] 一样跳过并记录日志。
+     * 写出期间 [writer] 为 lenient，NaN、Infinity 与 [body] 的 toString() 一样照常写出，不会在写出一半时抛出异常
+     * @param converter 与 [body] 相同的转换函数
+     */
+    fun writeTo(writer: JsonWriter, converter: ((BodyHelper, Any?) -> JsonElement)? = null) {
+        val func = converter?.func()
+        val lenient = writer.isLenient
+        writer.isLenient = true
+        try {
+            writer.beginObject()
+            map.forEach { (t, u) ->
+                try {
+                    writer.writeElement(t, u, func)
+                } catch (e: IllegalArgumentException) {
+                    logger.warning("Error adding element to JsonObject. Key: $t, Value: $u. Exception: ${e.message}")
+                }
+            }
+            writer.endObject()
+        } finally {
+            writer.isLenient = lenient
+        }
+    }
+
+    /**
+     * 写出一个键值对；值需要转换时先转换再写出键名，转换失败时不会留下没有值的键
+     */
+    private fun JsonWriter.writeElement(key: String, value: Any?, converter: JsonObjectConverter?) {
+        if (value == null) {
+            name(key).nullValue()
+            return
+        }
+        if (converter != null) {
+            val element = converter.convert(value)
+            name(key)
+            ELEMENT_ADAPTER.write(this, element)
+            return
+        }
+        val dispatch = BodyConverterRegistry.resolve(value.javaClass)
+        when (dispatch.kind) {
+            // 与 body() 一致，对象中的数字以字符串写出
+            Kind.STRING -> name(key).value(value as String)
+            Kind.NUMBER -> name(key).value(value.toString())
+            Kind.BOOLEAN -> name(key).value(value as Boolean)
+            Kind.CHAR -> name(key).value(value.toString())
+            Kind.LIST -> {
+                val list = value as List<*>
+                val kinds = arrayOfNulls<Kind>(list.size)
+                val elements = arrayElements(list, kinds)
+                name(key).beginArray()
+                for (i in elements.indices) {
+                    writeArrayElement(elements[i], kinds[i])
+                }
+                endArray()
+            }
+            else -> {
+                val element = toElement(value, dispatch, numberAsString = true)
+                name(key)
+                ELEMENT_ADAPTER.write(this, element)
+            }
+        }
+    }
+
+    /**
+     * 校验并准备数组元素，规则与 [toArrayElement] 一致；HasJsonObject 与注册的类型在这里转换为 JsonElement，
+     * 全部校验通过后才开始写出，避免写出一半的数组
+     * @param kinds 输出每个元素的转换方式，null 元素为 null
+     */
+    private fun arrayElements(list: List<*>, kinds: Array<Kind?>): Array<Any?> {
+        val elements = arrayOfNulls<Any>(list.size)
+        var lastType: Class<*>? = null
+        var dispatch = Dispatch.UNSUPPORTED
+        list.forEachIndexed { i, item ->
+            if (item == null) return@forEachIndexed
+            // 列表元素大多是同一类型，类型不变时不再查表
+            if (item.javaClass !== lastType) {
+                lastType = item.javaClass
+                dispatch = BodyConverterRegistry.resolve(item.javaClass)
+            }
+            kinds[i] = dispatch.kind
+            elements[i] = when (dispatch.kind) {
+                Kind.STRING, Kind.NUMBER, Kind.BOOLEAN, Kind.CHAR -> item
+                else -> toArrayElement(item, dispatch)
+            }
+        }
+        return elements
+    }
+
+    private fun JsonWriter.writeArrayElement(element: Any?, kind: Kind?) {
+        when (kind) {
+            null -> nullValue()
+            Kind.STRING -> value(element as String)
+            Kind.NUMBER -> value(element as Number)
+            Kind.BOOLEAN -> value(element as Boolean)
+            Kind.CHAR -> value(element.toString())
+            else -> ELEMENT_ADAPTER.write(this, element as JsonElement)
+        }
+    }
+
     /**
      * 将元素添加到JsonObject中，根据元素的不同类型进行相应处理
      * @param key 要添加元素对应的键名
@@ -210,14 +346,23 @@ class BodyHelper(private val map: HashMap<String, Any?> = hashMapOf()) {
         if (value == null) {
             return JsonNull.INSTANCE
         }
-        return converter?.convert(value) ?: when (value) {
-            is String -> JsonPrimitive(value)
-            is Number -> JsonPrimitive(value)
-            is Boolean -> JsonPrimitive(value)
-            is Char -> JsonPrimitive(value)
-            is HasJsonObject -> value.jsonObject()
-            is List<*> -> JsonArray().addPrimitiveElement(value)
-            else -> {
+        return converter?.convert(value) ?: toElement(value, BodyConverterRegistry.resolve(value.javaClass))
+    }
+
+    /**
+     * 按 [BodyConverterRegistry] 查到的转换方式把非 null 值转换为JsonElement
+     * @param numberAsString 数字是否以字符串表示
+     */
+    private fun toElement(value: Any, dispatch: Dispatch, numberAsString: Boolean = false): JsonElement {
+        return when (dispatch.kind) {
+            Kind.STRING -> JsonPrimitive(value as String)
+            Kind.NUMBER -> if (numberAsString) JsonPrimitive(value.toString()) else JsonPrimitive(value as Number)
+            Kind.BOOLEAN -> JsonPrimitive(value as Boolean)
+            Kind.CHAR -> JsonPrimitive(value as Char)
+            Kind.HAS_JSON_OBJECT -> (value as HasJsonObject).jsonObject()
+            Kind.CUSTOM -> dispatch.converter!!.convert(value)
+            Kind.LIST -> toJsonArray(value as List<*>)
+            Kind.UNSUPPORTED -> {
                 logger.severe("Invalid element type for conversion. Element: $value")
                 throw IllegalArgumentException("Invalid element, $value is not primitive or HasJsonObject or List!")
             }
@@ -225,26 +370,36 @@ class BodyHelper(private val map: HashMap<String, Any?> = hashMapOf()) {
     }
 
     /**
-     * 将元素添加到JsonArray中，根据元素类型进行相应处理，不符合要求的类型抛出异常
-     * @param element 要添加的元素，可以是各种类型数据
-     * @return 添加元素后的JsonArray
+     * 将列表转换为JsonArray，元素不能再是列表，不符合要求的类型抛出异常
      */
-    private fun JsonArray.addPrimitiveElement(element: Any?): JsonArray {
-        if (element == null) {
-            this.add(JsonNull.INSTANCE)
-        }
-        when (element) {
-            is String -> this.add(element)
-            is Number -> this.add(element)
-            is Boolean -> this.add(element)
-            is Char -> this.add(element)
-            is HasJsonObject -> this.add(element.jsonObject())
-            else -> {
-                logger.severe("Invalid element type for adding to JsonArray. Element: $element")
-                throw IllegalArgumentException("element is not primitive")
+    private fun toJsonArray(list: List<*>): JsonArray {
+        val array = JsonArray(list.size)
+        var lastType: Class<*>? = null
+        var dispatch = Dispatch.UNSUPPORTED
+        for (item in list) {
+            if (item == null) {
+                array.add(JsonNull.INSTANCE)
+                continue
+            }
+            // 列表元素大多是同一类型，类型不变时不再查表
+            if (item.javaClass !== lastType) {
+                lastType = item.javaClass
+                dispatch = BodyConverterRegistry.resolve(item.javaClass)
             }
+            array.add(toArrayElement(item, dispatch))
         }
-        return this
+        return array
+    }
+
+    /**
+     * 转换数组元素，规则与 [toElement] 一致，但列表和不支持的类型都抛出异常
+     */
+    private fun toArrayElement(element: Any, dispatch: Dispatch): JsonElement {
+        if (dispatch.kind == Kind.LIST || dispatch.kind == Kind.UNSUPPORTED) {
+            logger.severe("Invalid element type for adding to JsonArray. Element: $element")
+            throw IllegalArgumentException("element is not primitive")
+        }
+        return toElement(element, dispatch)
     }
 
     /**
@@ -268,6 +423,15 @@ class BodyHelper(private val map: HashMap<String, Any?> = hashMapOf()) {
     private fun elementConverter(value: (BodyHelper, Any?) -> JsonElement): JsonObjectConverter =
         value.func()!!
 
+    companion object {
+        private val JSON = "application/json; charset=UTF-8".toMediaTypeOrNull()
+
+        /**
+         * 按 JsonWriter 自身的设置写出 JsonElement，与 JsonElement.toString() 的输出一致
+         */
+        private val ELEMENT_ADAPTER = Gson().getAdapter(JsonElement::class.java)
+    }
+
     interface JsonObjectConverter {
         fun convert(value: Any?): JsonElement
     }
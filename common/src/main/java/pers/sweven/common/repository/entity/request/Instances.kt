@@ -0,0 +1,30 @@
+package pers.sweven.common.repository.entity.request
+
+import java.lang.reflect.Modifier
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 注解中 Condition / ValueConverter 类的实例缓存
+ *
+ * 同一个类在所有字段间共用一个实例，因此实现类不应保存状态；
+ * Kotlin object 没有可访问的无参构造方法，使用它的 INSTANCE 单例，
+ * 这样也不需要依赖 kotlin-reflect 的 KClass.objectInstance。
+ */
+internal object Instances {
+    private val instances = ConcurrentHashMap<Class<*>, Any>()
+
+    fun <T> of(clazz: Class<out T>): T {
+        @Suppress("UNCHECKED_CAST")
+        return (instances[clazz] ?: newInstance(clazz).let { instances.putIfAbsent(clazz, it) ?: it }) as T
+    }
+
+    private fun newInstance(clazz: Class<*>): Any {
+        val instance = try {
+            clazz.getDeclaredField("INSTANCE")
+                .takeIf { Modifier.isStatic(it.modifiers) && clazz.isAssignableFrom(it.type) }
+        } catch (e: NoSuchFieldException) {
+            null
+        }
+        return instance?.get(null) ?: clazz.newInstance()
+    }
+}
@@ -0,0 +1,73 @@
+package pers.sweven.common.repository.entity.request
+
+import java.lang.reflect.Field
+
+/**
+ * 参数字段：键名与注解中的取值已提前解析，通过 [get] 读取字段值
+ *
+ * 由 common-compiler 生成，或在没有生成代码时由反射创建
+ * @param [name] 字段名
+ * @param [key] 写入参数表的键
+ * @param [noAdd] 不添加到结果中的值列表
+ * @param [desc] 字段的描述信息
+ * @param [condition] 添加条件（[BaseBody.BodyParam]），默认条件时为 null
+ * @param [converter] 值转换器（[BaseRequest.Param]），默认转换器时为 null
+ */
+abstract class ParamField<in T>(
+    val name: String,
+    val key: String,
+    val noAdd: Array<String>,
+    val desc: String,
+    val condition: Condition?,
+    val converter: ValueConverter?,
+) {
+    /**
+     * 读取字段的原始值
+     */
+    abstract fun get(target: T): Any?
+}
+
+/**
+ * 编译期生成的字段表
+ *
+ * common-compiler 为 BaseRequest / BaseBody 的每个子类生成一个实现，类名为 `类名_Fields`（嵌套类以 `_` 连接），
+ * 只包含该类自身声明、需要加入参数的字段；运行时优先使用生成的字段表，找不到时回退到反射。
+ */
+interface GeneratedFields<T> {
+    fun fields(): List<ParamField<T>>
+}
+
+/**
+ * 通过反射读取的参数字段，没有生成代码时使用
+ */
+internal class ReflectedField(
+    private val field: Field,
+    key: String,
+    noAdd: Array<String>,
+    desc: String,
+    condition: Condition?,
+    converter: ValueConverter?,
+) : ParamField<Any>(field.name, key, noAdd, desc, condition, converter) {
+
+    init {
+        field.isAccessible = true
+    }
+
+    override fun get(target: Any): Any? = field.get(target)
+}
+
+/**
+ * 加载 clazz 的生成字段表
+ * @return 生成的字段，没有生成代码时返回 null
+ */
+internal fun generatedFields(clazz: Class<*>): List<ParamField<Any>>? {
+    val name = clazz.name
+    val dot = name.lastIndexOf('.')
+    val generated = name.substring(0, dot + 1) + name.substring(dot + 1).replace('$', '_') + "_Fields"
+    return try {
+        @Suppress("UNCHECKED_CAST")
+        (Class.forName(generated, true, clazz.classLoader).newInstance() as GeneratedFields<Any>).fields()
+    } catch (e: ClassNotFoundException) {
+        null
+    }
+}
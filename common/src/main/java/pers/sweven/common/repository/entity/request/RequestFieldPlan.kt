@@ -0,0 +1,69 @@
+package pers.sweven.common.repository.entity.request
+
+import com.google.gson.annotations.SerializedName
+import pers.sweven.common.repository.entity.request.BaseRequest.Param
+import java.lang.reflect.Modifier
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * BaseRequest 的字段计划，按类缓存该类自身声明的参数字段
+ *
+ * 有 common-compiler 生成的字段表时直接使用，否则通过反射生成一次。
+ */
+internal object RequestFieldPlan {
+    private val plans = ConcurrentHashMap<Class<*>, Array<ParamField<Any>>>()
+    private val intercepts = ConcurrentHashMap<Class<*>, Boolean>()
+
+    fun of(clazz: Class<*>): Array<ParamField<Any>> {
+        return plans[clazz] ?: compile(clazz).also { plans.putIfAbsent(clazz, it) }
+    }
+
+    /**
+     * 子类重写了 intercept 时需要字段上的注解，只能逐个字段反射处理
+     */
+    fun overridesIntercept(clazz: Class<*>): Boolean {
+        return intercepts[clazz] ?: findIntercept(clazz).also { intercepts[clazz] = it }
+    }
+
+    private fun findIntercept(clazz: Class<*>): Boolean {
+        var current: Class<*>? = clazz
+        while (current != null && current != BaseRequest::class.java) {
+            try {
+                current.getDeclaredMethod("intercept", Annotation::class.java, Any::class.java)
+                return true
+            } catch (e: NoSuchMethodException) {
+                current = current.superclass
+            }
+        }
+        return false
+    }
+
+    private fun compile(clazz: Class<*>): Array<ParamField<Any>> {
+        if (clazz == BaseRequest::class.java || !BaseRequest::class.java.isAssignableFrom(clazz)) {
+            return emptyArray()
+        }
+        return (generatedFields(clazz) ?: reflect(clazz)).toTypedArray()
+    }
+
+    private fun reflect(clazz: Class<*>): List<ParamField<Any>> {
+        val fields = mutableListOf<ParamField<Any>>()
+        clazz.declaredFields.forEach { field ->
+            if (Modifier.isStatic(field.modifiers) || field.isSynthetic) return@forEach
+            val param = field.getAnnotation(Param::class.java)
+            if (param != null && !param.isAdd) return@forEach
+            try {
+                val key = param?.value?.takeIf { it.isNotEmpty() }
+                    ?: field.getAnnotation(SerializedName::class.java)?.value
+                    ?: field.name
+                val converter = param?.converter?.java
+                    ?.takeIf { it != DefaultConverter::class.java }
+                    ?.let { Instances.of(it) }
+                fields.add(ReflectedField(field, key, param?.noAdd ?: emptyArray(), param?.desc ?: "", null, converter))
+            } catch (e: Exception) {
+                // 转换器无法实例化等情况，跳过该字段
+                e.printStackTrace()
+            }
+        }
+        return fields
+    }
+}
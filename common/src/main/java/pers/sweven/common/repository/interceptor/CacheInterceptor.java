@@ -2,34 +2,235 @@ package pers.sweven.common.repository.interceptor;
 
 import android.content.Context;
 
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLException;
 
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.Interceptor;
 import okhttp3.Request;
 import okhttp3.Response;
-import pers.sweven.common.utils.NetworkUtils;
+import okio.Okio;
+import pers.sweven.common.utils.NetworkMonitor;
+import retrofit2.Invocation;
 
+/**
+ * 缓存拦截器，按接口上的 {@link CachePolicy} 使用 OkHttp 的 Cache
+ *
+ * <ul>
+ *   <li>缓存未过期时直接返回缓存</li>
+ *   <li>过期但在 staleWhileRevalidate 内时返回缓存，并在后台刷新，同一地址同时只刷新一次</li>
+ *   <li>网络错误或 5xx 时，在 staleIfError 内返回缓存</li>
+ *   <li>没有网络时所有 GET 请求只读缓存，不论是否过期；没有缓存时照常请求</li>
+ * </ul>
+ * 需要同时添加应用拦截器和网络拦截器，网络拦截器负责改写响应头，使 Cache 按 maxAge 保存响应：
+ * <pre>{@code
+ * CacheInterceptor cacheInterceptor = new CacheInterceptor(context);
+ * builder.addInterceptor(cacheInterceptor)
+ *         .addNetworkInterceptor(cacheInterceptor.networkInterceptor())
+ *         .cache(OkHttpClientFactory.cache(context));
+ * }</pre>
+ */
 public class CacheInterceptor implements Interceptor {
+    private static final Policy NONE = new Policy(0, 0, 0);
 
     private final Context context;
+    private final ConcurrentHashMap<Method, Policy> policies = new ConcurrentHashMap<>();
+    // 正在后台刷新的地址
+    private final ConcurrentHashMap<String, Call> revalidating = new ConcurrentHashMap<>();
+    private final Set<Call> revalidateCalls = Collections.newSetFromMap(new ConcurrentHashMap<Call, Boolean>());
+    private final Interceptor networkInterceptor = new Interceptor() {
+        @NotNull
+        @Override
+        public Response intercept(@NotNull Chain chain) throws IOException {
+            Request request = chain.request();
+            Response response = chain.proceed(request);
+            Policy policy = policyOf(request);
+            if (policy == NONE || !"GET".equals(request.method())
+                    || !(response.isSuccessful() || response.code() == 304)) {
+                return response;
+            }
+            return response.newBuilder()
+                    .removeHeader("Pragma")
+                    .removeHeader("Expires")
+                    .header("Cache-Control", "public, max-age=" + policy.maxAge)
+                    .build();
+        }
+    };
 
     public CacheInterceptor(Context context) {
-        this.context = context;
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * 按 {@link CachePolicy} 改写响应头的网络拦截器，通过 addNetworkInterceptor 添加
+     */
+    public Interceptor networkInterceptor() {
+        return networkInterceptor;
     }
 
+    @NotNull
     @Override
-    public Response intercept(Chain chain) throws IOException {
+    public Response intercept(@NotNull Chain chain) throws IOException {
         Request request = chain.request();
-        if (NetworkUtils.isNetworkAvailable(context)) {
-            Response response = chain.proceed(request);
-            int maxAge = 60;
-            return response.newBuilder()
-                    .removeHeader("Pragma")
-                    .removeHeader("Cache-Control")
-                    .header("Cache-Control", "public, max-age=" + maxAge)
-                    .build();
-        } else {
+        if (!"GET".equals(request.method())) {
             return chain.proceed(request);
         }
+        if (revalidateCalls.contains(chain.call())) {
+            // 后台刷新，跳过缓存直接请求，响应仍会写入缓存
+            return chain.proceed(request.newBuilder().cacheControl(CacheControl.FORCE_NETWORK).build());
+        }
+        if (!NetworkMonitor.get(context).isConnected()) {
+            Response cached = cacheOnly(chain, request, Integer.MAX_VALUE);
+            return cached != null ? cached : chain.proceed(request);
+        }
+
+        Policy policy = policyOf(request);
+        if (policy == NONE) {
+            return chain.proceed(request);
+        }
+        if (policy.staleWhileRevalidate > 0) {
+            Response cached = cacheOnly(chain, request, policy.staleWhileRevalidate);
+            if (cached != null) {
+                if (ageMillis(cached) > TimeUnit.SECONDS.toMillis(policy.maxAge)) {
+                    revalidate(chain);
+                }
+                return cached;
+            }
+        }
+
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            if (policy.staleIfError > 0 && isNetworkError(e)) {
+                Response cached = cacheOnly(chain, request, policy.staleIfError);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            throw e;
+        }
+        if (response.code() >= 500 && policy.staleIfError > 0) {
+            Response cached = cacheOnly(chain, request, policy.staleIfError);
+            if (cached != null) {
+                response.close();
+                return cached;
+            }
+        }
+        return response;
+    }
+
+    /**
+     * 只从缓存读取
+     *
+     * @param maxStale 可以接受的超过 maxAge 的时间，秒
+     * @return 没有可用的缓存时返回 null
+     */
+    private Response cacheOnly(Chain chain, Request request, int maxStale) throws IOException {
+        CacheControl cacheControl = new CacheControl.Builder()
+                .onlyIfCached()
+                .maxStale(maxStale, TimeUnit.SECONDS)
+                .build();
+        Response response = chain.proceed(request.newBuilder().cacheControl(cacheControl).build());
+        if (response.code() == 504 && response.cacheResponse() == null) {
+            // only-if-cached 未命中
+            response.close();
+            return null;
+        }
+        return response;
+    }
+
+    /**
+     * 在后台重新发起同一个请求，刷新缓存
+     */
+    private void revalidate(Chain chain) {
+        final String key = chain.request().url().toString();
+        final Call call = chain.call().clone();
+        if (revalidating.putIfAbsent(key, call) != null) {
+            return;
+        }
+        revalidateCalls.add(call);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                finish(key, call);
+            }
+
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull Response response) {
+                // 读完响应体才会写入缓存
+                try {
+                    response.body().source().readAll(Okio.blackhole());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    response.close();
+                    finish(key, call);
+                }
+            }
+        });
+    }
+
+    private void finish(String key, Call call) {
+        revalidateCalls.remove(call);
+        revalidating.remove(key, call);
+    }
+
+    private Policy policyOf(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation == null) {
+            return NONE;
+        }
+        Method method = invocation.method();
+        Policy policy = policies.get(method);
+        if (policy == null) {
+            CachePolicy annotation = method.getAnnotation(CachePolicy.class);
+            policy = annotation == null ? NONE : new Policy(annotation.maxAge(),
+                    annotation.staleWhileRevalidate(), annotation.staleIfError());
+            policies.put(method, policy);
+        }
+        return policy;
+    }
+
+    private static long ageMillis(Response cached) {
+        return System.currentTimeMillis() - cached.receivedResponseAtMillis();
+    }
+
+    /**
+     * 连接、超时、TLS 等网络错误；业务拦截器抛出的 IOException 不使用缓存
+     */
+    private static boolean isNetworkError(IOException e) {
+        return e instanceof SocketException || e instanceof UnknownHostException
+                || e instanceof InterruptedIOException || e instanceof SSLException
+                || e instanceof EOFException;
+    }
+
+    private static final class Policy {
+        // 有效时间，秒
+        final int maxAge;
+        // 过期后可以先返回再刷新的时间，0 为不使用，秒
+        final int staleWhileRevalidate;
+        // 过期后出错时可以返回的时间，0 为不使用，秒
+        final int staleIfError;
+
+        Policy(int maxAge, int staleWhileRevalidate, int staleIfError) {
+            this.maxAge = maxAge;
+            this.staleWhileRevalidate = staleWhileRevalidate;
+            this.staleIfError = staleIfError;
+        }
     }
-}
\ No newline at end of file
+}
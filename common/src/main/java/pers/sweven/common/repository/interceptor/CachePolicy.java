@@ -0,0 +1,42 @@
+package pers.sweven.common.repository.interceptor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明 Retrofit GET 接口的缓存策略，由 {@link CacheInterceptor} 处理，响应保存在 OkHttp 的 Cache 中。
+ *
+ * <ul>
+ *   <li>maxAge 内直接使用缓存，不发请求</li>
+ *   <li>超过 maxAge、未超过 maxAge + staleWhileRevalidate 时先返回缓存，同时在后台刷新</li>
+ *   <li>请求失败或服务器 5xx 时，maxAge + staleIfError 内的缓存可以代替错误返回</li>
+ * </ul>
+ * <pre>{@code
+ * @CachePolicy(maxAge = 60, staleWhileRevalidate = 600, staleIfError = 86400)
+ * @GET("goods/list")
+ * Observable<GoodsList> goodsList(@Query("page") int page);
+ * }</pre>
+ * 时间单位均为秒。
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CachePolicy {
+    /**
+     * @return 缓存的有效时间
+     */
+    int maxAge();
+
+    /**
+     * @return 过期后仍可直接返回、同时后台刷新的时间
+     */
+    int staleWhileRevalidate() default 0;
+
+    /**
+     * @return 过期后在请求出错时仍可返回的时间
+     */
+    int staleIfError() default 0;
+}
@@ -1,7 +1,5 @@
 package pers.sweven.common.repository.interceptor;
 
-import android.text.TextUtils;
-
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
@@ -40,14 +38,7 @@ public class HeaderInterceptor implements Interceptor {
         }
         requestBuilder.addHeader("path", path);
         Request request = requestBuilder.build();
-        Response.Builder responseBuilder = chain.proceed(request).newBuilder();
-
-        if (!TextUtils.isEmpty(request.cacheControl().toString())) {
-            responseBuilder
-                    .removeHeader("Pragma")
-                    .removeHeader("Cache-Control")
-                    .header("Cache-Control", "public, max-age=" + request.cacheControl().maxAgeSeconds());
-        }
-        return responseBuilder.build();
+        // 响应的缓存头由 CacheInterceptor 按 @CachePolicy 处理
+        return chain.proceed(request);
     }
 }
\ No newline at end of file
@@ -0,0 +1,427 @@
+package pers.sweven.common.repository.interceptor;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.util.Log;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+
+/**
+ * 网络日志拦截器
+ *
+ * <ul>
+ *   <li>按构建类型选择日志级别：debuggable 的应用默认 {@link Level#BODY}，release 默认 {@link Level#NONE}</li>
+ *   <li>可以按路径前缀单独设置级别，最长的前缀优先</li>
+ *   <li>可以只记录一定比例的请求</li>
+ *   <li>请求体与响应体只记录前 maxBodyBytes 个字节；响应体通过 peek 读取，不会把整个响应读入内存</li>
+ *   <li>请求线程上只复制需要的数据，字符串的拼接和输出在单独的日志线程上进行，日志过多时丢弃最早的记录</li>
+ * </ul>
+ * 级别为 NONE 或未被抽中的请求直接放行，没有额外开销。
+ *
+ * <pre>{@code
+ * LogInterceptor interceptor = new LogInterceptor.Builder(context)
+ *         .releaseLevel(LogInterceptor.Level.BASIC)
+ *         .pathLevel("/upload", LogInterceptor.Level.HEADERS)
+ *         .sampleRate(0.1)
+ *         .maxBodyBytes(2048)
+ *         .build();
+ * }</pre>
+ */
+public class LogInterceptor implements Interceptor {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    // 请求体超过该大小时不复制
+    private static final long MAX_REQUEST_COPY_BYTES = 64 * 1024;
+    // 日志线程队列中最多等待的记录数
+    private static final int QUEUE_SIZE = 256;
+    private static volatile ExecutorService executor;
+
+    private final Level level;
+    private final Map<String, Level> pathLevels;
+    private final double sampleRate;
+    private final long maxBodyBytes;
+    private final Logger logger;
+    private final Random random = new Random();
+
+    public enum Level {
+        // 不记录
+        NONE,
+        // 请求行与响应行
+        BASIC,
+        // BASIC 与请求头、响应头
+        HEADERS,
+        // HEADERS 与请求体、响应体
+        BODY
+    }
+
+    /**
+     * 日志输出，在日志线程上调用
+     */
+    public interface Logger {
+        void log(String message);
+
+        Logger DEFAULT = new Logger() {
+            @Override
+            public void log(String message) {
+                // logcat 单条日志有长度限制，分段输出
+                for (int i = 0, length = message.length(); i < length; i += 4000) {
+                    Log.i("OkHttp", message.substring(i, Math.min(length, i + 4000)));
+                }
+            }
+        };
+    }
+
+    private LogInterceptor(Builder builder) {
+        this.level = builder.debuggable ? builder.debugLevel : builder.releaseLevel;
+        this.pathLevels = new LinkedHashMap<>(builder.pathLevels);
+        this.sampleRate = builder.sampleRate;
+        this.maxBodyBytes = builder.maxBodyBytes;
+        this.logger = builder.logger;
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        Level level = levelOf(request.url());
+        if (level == Level.NONE || (sampleRate < 1 && random.nextDouble() >= sampleRate)) {
+            return chain.proceed(request);
+        }
+
+        final Record record = new Record(level, request.method(), request.url());
+        if (level.compareTo(Level.HEADERS) >= 0) {
+            record.requestHeaders = request.headers();
+        }
+        RequestBody requestBody = request.body();
+        if (requestBody != null) {
+            record.requestContentType = requestBody.contentType();
+            record.requestLength = requestBody.contentLength();
+            if (level == Level.BODY) {
+                // 长度未知、只能写一次或双向的请求体复制后无法再发送，与 HttpLoggingInterceptor 一样不记录
+                if (requestBody instanceof MultipartBody || record.requestLength < 0
+                        || record.requestLength > MAX_REQUEST_COPY_BYTES
+                        || requestBody.isOneShot() || requestBody.isDuplex()) {
+                    record.requestOmitted = true;
+                } else {
+                    Buffer buffer = new Buffer();
+                    requestBody.writeTo(buffer);
+                    record.requestLength = buffer.size();
+                    record.requestBody = head(buffer);
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            record.failure = e;
+            record.tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            post(record);
+            throw e;
+        }
+        record.tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        record.code = response.code();
+        record.message = response.message();
+        if (level.compareTo(Level.HEADERS) >= 0) {
+            record.responseHeaders = response.headers();
+        }
+        ResponseBody responseBody = response.body();
+        if (responseBody != null) {
+            record.responseContentType = responseBody.contentType();
+            record.responseLength = responseBody.contentLength();
+            String encoding = response.header("Content-Encoding");
+            if (level == Level.BODY && (encoding == null || "identity".equalsIgnoreCase(encoding))) {
+                // 只让 source 预读需要的字节，复制后交给日志线程，原响应体不受影响
+                BufferedSource source = responseBody.source();
+                try {
+                    source.request(maxBodyBytes);
+                } catch (IOException e) {
+                    response.close();
+                    record.failure = e;
+                    post(record);
+                    throw e;
+                }
+                record.responseBody = head(source.buffer());
+            } else if (level == Level.BODY) {
+                record.responseOmitted = true;
+            }
+        }
+        post(record);
+        return response;
+    }
+
+    private Level levelOf(HttpUrl url) {
+        if (pathLevels.isEmpty()) {
+            return level;
+        }
+        String path = url.encodedPath();
+        Level result = level;
+        int matched = -1;
+        for (Map.Entry<String, Level> entry : pathLevels.entrySet()) {
+            String prefix = entry.getKey();
+            if (prefix.length() > matched && path.startsWith(prefix)) {
+                matched = prefix.length();
+                result = entry.getValue();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 复制 buffer 开头最多 maxBodyBytes 个字节，不消耗 buffer
+     */
+    private Buffer head(Buffer buffer) {
+        Buffer copy = new Buffer();
+        buffer.copyTo(copy, 0, Math.min(buffer.size(), maxBodyBytes));
+        return copy;
+    }
+
+    private void post(final Record record) {
+        try {
+            executor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        record.print(logger, maxBodyBytes);
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            });
+        } catch (Exception e) {
+            // 日志线程不可用时不影响请求
+            e.printStackTrace();
+        }
+    }
+
+    private static ExecutorService executor() {
+        if (executor == null) {
+            synchronized (LogInterceptor.class) {
+                if (executor == null) {
+                    executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<Runnable>(QUEUE_SIZE),
+                            new ThreadFactory() {
+                                @Override
+                                public Thread newThread(@NotNull Runnable r) {
+                                    Thread thread = new Thread(r, "OkHttp-Logger");
+                                    thread.setDaemon(true);
+                                    thread.setPriority(Thread.MIN_PRIORITY);
+                                    return thread;
+                                }
+                            },
+                            new ThreadPoolExecutor.DiscardOldestPolicy());
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 一次请求需要记录的数据，在请求线程上收集，在日志线程上格式化
+     */
+    private static final class Record {
+        final Level level;
+        final String method;
+        final HttpUrl url;
+        Headers requestHeaders;
+        MediaType requestContentType;
+        long requestLength = -1;
+        Buffer requestBody;
+        boolean requestOmitted;
+        IOException failure;
+        long tookMs;
+        int code;
+        String message;
+        Headers responseHeaders;
+        MediaType responseContentType;
+        long responseLength = -1;
+        Buffer responseBody;
+        boolean responseOmitted;
+
+        Record(Level level, String method, HttpUrl url) {
+            this.level = level;
+            this.method = method;
+            this.url = url;
+        }
+
+        void print(Logger logger, long maxBodyBytes) {
+            logger.log("--> " + method + " " + url
+                    + (level == Level.BASIC && requestLength >= 0 ? " (" + requestLength + "-byte body)" : ""));
+            if (requestHeaders != null) {
+                if (requestContentType != null) {
+                    logger.log("Content-Type: " + requestContentType);
+                }
+                if (requestLength >= 0) {
+                    logger.log("Content-Length: " + requestLength);
+                }
+                printHeaders(logger, requestHeaders);
+            }
+            if (level == Level.BODY) {
+                if (requestOmitted) {
+                    logger.log("--> END " + method + " (body omitted)");
+                } else if (requestBody != null) {
+                    printBody(logger, requestBody, requestContentType, requestLength, maxBodyBytes);
+                    logger.log("--> END " + method + " (" + requestLength + "-byte body)");
+                } else {
+                    logger.log("--> END " + method);
+                }
+            }
+
+            if (failure != null) {
+                logger.log("<-- HTTP FAILED: " + failure + " " + url + " (" + tookMs + "ms)");
+                return;
+            }
+            String length = responseLength >= 0 ? responseLength + "-byte" : "unknown-length";
+            logger.log("<-- " + code + (message == null || message.isEmpty() ? "" : " " + message) + " " + url
+                    + " (" + tookMs + "ms" + (level == Level.BASIC ? ", " + length + " body" : "") + ")");
+            if (responseHeaders != null) {
+                printHeaders(logger, responseHeaders);
+            }
+            if (level == Level.BODY) {
+                if (responseOmitted) {
+                    logger.log("<-- END HTTP (encoded body omitted)");
+                } else if (responseBody != null) {
+                    printBody(logger, responseBody, responseContentType, responseLength, maxBodyBytes);
+                    logger.log("<-- END HTTP (" + length + " body)");
+                } else {
+                    logger.log("<-- END HTTP");
+                }
+            }
+        }
+
+        private static void printHeaders(Logger logger, Headers headers) {
+            for (int i = 0, count = headers.size(); i < count; i++) {
+                logger.log(headers.name(i) + ": " + headers.value(i));
+            }
+        }
+
+        private static void printBody(Logger logger, Buffer body, MediaType contentType, long length, long maxBodyBytes) {
+            if (!isPlaintext(body)) {
+                logger.log("(binary body omitted)");
+                return;
+            }
+            Charset charset = contentType == null ? UTF8 : contentType.charset(UTF8);
+            long size = body.size();
+            logger.log("");
+            logger.log(body.readString(charset));
+            if (size >= maxBodyBytes && (length < 0 || length > size)) {
+                logger.log("...(truncated to " + size + " bytes)");
+            }
+        }
+
+        /**
+         * 开头的字符不包含控制字符时视为文本
+         */
+        private static boolean isPlaintext(Buffer buffer) {
+            try {
+                Buffer prefix = new Buffer();
+                buffer.copyTo(prefix, 0, Math.min(buffer.size(), 64));
+                for (int i = 0; i < 16; i++) {
+                    if (prefix.exhausted()) {
+                        break;
+                    }
+                    int codePoint = prefix.readUtf8CodePoint();
+                    if (Character.isISOControl(codePoint) && !Character.isWhitespace(codePoint)) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (EOFException e) {
+                // 截断在多字节字符中间
+                return true;
+            }
+        }
+    }
+
+    public static final class Builder {
+        private boolean debuggable;
+        private Level debugLevel = Level.BODY;
+        private Level releaseLevel = Level.NONE;
+        private final Map<String, Level> pathLevels = new LinkedHashMap<>();
+        private double sampleRate = 1;
+        private long maxBodyBytes = 4 * 1024;
+        private Logger logger = Logger.DEFAULT;
+
+        /**
+         * @param context 用于判断应用是否为 debuggable
+         */
+        public Builder(@NotNull Context context) {
+            this.debuggable = (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        }
+
+        /**
+         * @param debuggable 是否使用 debug 构建的日志级别
+         */
+        public Builder(boolean debuggable) {
+            this.debuggable = debuggable;
+        }
+
+        public Builder debugLevel(@NotNull Level level) {
+            this.debugLevel = level;
+            return this;
+        }
+
+        public Builder releaseLevel(@NotNull Level level) {
+            this.releaseLevel = level;
+            return this;
+        }
+
+        /**
+         * 路径以 pathPrefix 开头的请求使用单独的级别，不区分构建类型
+         */
+        public Builder pathLevel(@NotNull String pathPrefix, @NotNull Level level) {
+            pathLevels.put(pathPrefix, level);
+            return this;
+        }
+
+        /**
+         * @param sampleRate 记录的请求比例，0 到 1，默认全部记录
+         */
+        public Builder sampleRate(double sampleRate) {
+            this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+            return this;
+        }
+
+        /**
+         * @param maxBodyBytes 请求体、响应体最多记录的字节数
+         */
+        public Builder maxBodyBytes(long maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+            return this;
+        }
+
+        public Builder logger(@NotNull Logger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        public LogInterceptor build() {
+            return new LogInterceptor(this);
+        }
+    }
+}
@@ -6,7 +6,7 @@ import android.content.Intent;
 import android.net.ConnectivityManager;
 import android.util.Log;
 
-import pers.sweven.common.utils.NetworkUtils;
+import pers.sweven.common.utils.NetworkMonitor;
 
 /**
  * 网络状态变化接收器
@@ -47,8 +47,6 @@ public class NetworkStatusReceiver extends BroadcastReceiver {
         }
     }
 
-    private static Type type = Type.NONE;
-
     public NetworkStatusReceiver() {
         super();
     }
@@ -56,28 +54,16 @@ public class NetworkStatusReceiver extends BroadcastReceiver {
     @Override
     public void onReceive(Context context, Intent intent) {
         if (intent.getAction().equals(ConnectivityManager.CONNECTIVITY_ACTION)) {
-            if (NetworkUtils.isWifiConnected(context)) {
-                type = Type.WIFI;
-            } else if (NetworkUtils.isMobileConnected(context)) {
-                type = Type.MOBILE;
-            } else {
-                type = Type.NONE;
-            }
-
-            Log.e(TAG,"The network has changed, code = " + type.value);
+            // 由 NetworkMonitor 查询一次并更新状态
+            NetworkMonitor.onConnectivityChanged();
+            Log.i(TAG, "The network has changed");
         }
     }
 
+    /**
+     * 当前网络类型，读取 {@link NetworkMonitor} 的状态，不查询 ConnectivityManager
+     */
     public static Type getType(Context context) {
-        if (type == Type.NONE) {
-            if (NetworkUtils.isWifiConnected(context)) {
-                type = Type.WIFI;
-            } else if (NetworkUtils.isMobileConnected(context)) {
-                type = Type.MOBILE;
-            } else {
-                type = Type.NONE;
-            }
-        }
-        return type;
+        return NetworkMonitor.get(context).state().getType();
     }
 }
\ No newline at end of file
@@ -0,0 +1,251 @@
+package pers.sweven.common.utils;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.net.NetworkRequest;
+import android.os.Build;
+
+import org.jetbrains.annotations.NotNull;
+
+import io.reactivex.Observable;
+import io.reactivex.subjects.BehaviorSubject;
+import io.reactivex.subjects.Subject;
+import pers.sweven.common.repository.receiver.NetworkStatusReceiver;
+
+/**
+ * 网络状态监听
+ *
+ * <p>通过 ConnectivityManager.NetworkCallback 监听网络变化，注册失败时使用 {@link NetworkStatusReceiver}。
+ * 当前状态保存在 volatile 字段中，{@link #state()}、{@link #isConnected()} 只读字段，不会访问 ConnectivityManager，
+ * 拦截器、界面可以随时调用；{@link #observe()} 发送状态变化。
+ *
+ * <pre>{@code
+ * if (!NetworkMonitor.get(context).isConnected()) { ... }
+ *
+ * NetworkMonitor.get(context).observe()
+ *         .observeOn(AndroidSchedulers.mainThread())
+ *         .subscribe(state -> offlineView.setVisibility(state.isConnected() ? View.GONE : View.VISIBLE));
+ * }</pre>
+ */
+public final class NetworkMonitor {
+    private static volatile NetworkMonitor instance;
+
+    private final ConnectivityManager manager;
+    private final Subject<State> subject;
+    private volatile State state;
+
+    private NetworkMonitor(Context context) {
+        this.manager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        this.state = query();
+        this.subject = BehaviorSubject.createDefault(state).toSerialized();
+        register(context);
+    }
+
+    /**
+     * 第一次调用时开始监听
+     */
+    public static NetworkMonitor get(@NotNull Context context) {
+        if (instance == null) {
+            synchronized (NetworkMonitor.class) {
+                if (instance == null) {
+                    instance = new NetworkMonitor(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 由 {@link NetworkStatusReceiver} 通知网络变化，未开始监听时忽略
+     */
+    public static void onConnectivityChanged() {
+        NetworkMonitor monitor = instance;
+        if (monitor != null) {
+            monitor.update(monitor.query());
+        }
+    }
+
+    /**
+     * @return 当前网络状态
+     */
+    public State state() {
+        return state;
+    }
+
+    /**
+     * @return 当前是否有可用的网络
+     */
+    public boolean isConnected() {
+        return state.connected;
+    }
+
+    /**
+     * 订阅时先发送当前状态，之后只在状态变化时发送，在监听回调的线程上发送
+     */
+    public Observable<State> observe() {
+        return subject.distinctUntilChanged();
+    }
+
+    private void register(Context context) {
+        try {
+            NetworkCallback callback = new NetworkCallback();
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                manager.registerDefaultNetworkCallback(callback);
+            } else {
+                NetworkRequest request = new NetworkRequest.Builder()
+                        .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                        .build();
+                manager.registerNetworkCallback(request, callback);
+            }
+        } catch (Exception e) {
+            // 缺少权限或回调数量超过限制时使用广播
+            e.printStackTrace();
+            context.registerReceiver(new NetworkStatusReceiver(),
+                    new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+        }
+    }
+
+    private synchronized void update(State state) {
+        if (!state.equals(this.state)) {
+            this.state = state;
+            subject.onNext(state);
+        }
+    }
+
+    /**
+     * 查询当前网络，只在初始化和网络变化时调用
+     */
+    @SuppressLint("MissingPermission")
+    private State query() {
+        try {
+            NetworkInfo info = manager == null ? null : manager.getActiveNetworkInfo();
+            if (info == null || !info.isConnected()) {
+                return State.NONE;
+            }
+            NetworkStatusReceiver.Type type = info.getType() == ConnectivityManager.TYPE_MOBILE
+                    ? NetworkStatusReceiver.Type.MOBILE : NetworkStatusReceiver.Type.WIFI;
+            return new State(true, type, manager.isActiveNetworkMetered());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return State.NONE;
+        }
+    }
+
+    /**
+     * 按指定网络的能力计算状态，取不到时查询当前网络
+     */
+    @SuppressLint("MissingPermission")
+    private State capabilitiesOf(Network network) {
+        try {
+            NetworkCapabilities capabilities = manager.getNetworkCapabilities(network);
+            if (capabilities != null) {
+                return State.of(capabilities);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return query();
+    }
+
+    private final class NetworkCallback extends ConnectivityManager.NetworkCallback {
+        @Override
+        public void onAvailable(@NotNull Network network) {
+            // API 26 之前 onCapabilitiesChanged 不一定紧跟 onAvailable，这里先查询一次
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                update(capabilitiesOf(network));
+            } else {
+                update(query());
+            }
+        }
+
+        @Override
+        public void onCapabilitiesChanged(@NotNull Network network, @NotNull NetworkCapabilities capabilities) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                // 默认网络的回调，直接使用回调中的能力，不再查询
+                update(State.of(capabilities));
+            } else {
+                update(query());
+            }
+        }
+
+        @Override
+        public void onLost(@NotNull Network network) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                update(State.NONE);
+            } else {
+                // 监听的是所有联网的网络，失去其中一个时可能仍有其他网络
+                update(query());
+            }
+        }
+    }
+
+    /**
+     * 网络状态，不可变
+     */
+    public static final class State {
+        public static final State NONE = new State(false, NetworkStatusReceiver.Type.NONE, false);
+
+        private final boolean connected;
+        // 有线网络等非移动网络视为 WIFI
+        private final NetworkStatusReceiver.Type type;
+        private final boolean metered;
+
+        State(boolean connected, NetworkStatusReceiver.Type type, boolean metered) {
+            this.connected = connected;
+            this.type = type;
+            this.metered = metered;
+        }
+
+        static State of(NetworkCapabilities capabilities) {
+            if (!capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)) {
+                return NONE;
+            }
+            NetworkStatusReceiver.Type type = capabilities.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR)
+                    ? NetworkStatusReceiver.Type.MOBILE : NetworkStatusReceiver.Type.WIFI;
+            boolean metered = !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+            return new State(true, type, metered);
+        }
+
+        public boolean isConnected() {
+            return connected;
+        }
+
+        public NetworkStatusReceiver.Type getType() {
+            return type;
+        }
+
+        /**
+         * @return 是否为按流量计费的网络
+         */
+        public boolean isMetered() {
+            return metered;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof State)) return false;
+            State state = (State) o;
+            return connected == state.connected && metered == state.metered && type == state.type;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = connected ? 1 : 0;
+            result = 31 * result + type.hashCode();
+            result = 31 * result + (metered ? 1 : 0);
+            return result;
+        }
+
+        @NotNull
+        @Override
+        public String toString() {
+            return "State{connected=" + connected + ", type=" + type + ", metered=" + metered + "}";
+        }
+    }
+}
@@ -28,6 +28,7 @@ public class NetworkUtils {
 
     /**
      * check NetworkAvailable
+     * <p>每次调用都会查询 ConnectivityManager，频繁判断时使用 {@link NetworkMonitor#isConnected()}
      *
      * @param context
      * @return
@@ -66,6 +67,8 @@ public class NetworkUtils {
 
     /**
      * 返回当前网络状态
+     * <p>已连接时会请求 www.baidu.com 判断是否可以上网，最多阻塞 3 秒，不要在主线程调用；
+     * 只需要判断是否连接时使用 {@link NetworkMonitor#isConnected()}
      *
      * @param context
      * @return
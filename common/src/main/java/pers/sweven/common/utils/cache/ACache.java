@@ -26,26 +26,51 @@ import android.graphics.drawable.Drawable;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.io.Serializable;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.InflaterInputStream;
 
 /**
  * @author Michael Yang（www.yangfuhai.com） update at 2013.08.07
@@ -64,8 +89,21 @@ public class ACache {
     public static final int TIME_DAY = TIME_HOUR * 24;
     private static final int MAX_SIZE = 1000 * 1000 * 50; // 50 mb
     private static final int MAX_COUNT = Integer.MAX_VALUE; // 不限制存放数据的数量
-    private static final Map<String, ACache> mInstanceMap = new HashMap<String, ACache>();
-    private final ACacheManager mCache;
+    private static final long DEFAULT_SWEEP_PERIOD = 5 * 60; // 5 分钟
+    private static final int DEFAULT_SWEEP_BATCH = 64;
+    /**
+     * 已打开的缓存，以目录的规范路径为 key，保证同一个目录在进程内只有一个实例
+     */
+    private static final ConcurrentHashMap<String, ACache> mInstanceMap = new ConcurrentHashMap<>();
+    private volatile CacheStore mCache;
+    private volatile MemoryCache mMemory;
+    private volatile CacheSerializer mSerializer = JavaCacheSerializer.INSTANCE;
+    private final StatsRecorder mStats = new StatsRecorder();
+    private volatile ScheduledFuture<?> mStatsReport;
+    private volatile ScheduledFuture<?> mSweeper;
+    private static ScheduledExecutorService sScheduler;
+    private final boolean mJournal;
+    private final boolean mMultiProcess;
 
     public static ACache get(Context ctx) {
         return get(ctx, "ACache");
@@ -86,57 +124,401 @@ public class ACache {
     }
 
     public static ACache get(File cacheDir, long max_zise, int max_count) {
-        ACache manager = mInstanceMap.get(cacheDir.getAbsoluteFile() + myPid());
+        return get(cacheDir, max_zise, max_count, KeyMode.HASH_CODE);
+    }
+
+    public static ACache get(Context ctx, String cacheName, KeyMode keyMode) {
+        File f = new File(ctx.getCacheDir(), cacheName);
+        return get(f, MAX_SIZE, MAX_COUNT, keyMode);
+    }
+
+    /**
+     * @param keyMode 缓存文件的命名方式，同一个目录以第一次打开时的方式为准
+     */
+    public static ACache get(File cacheDir, long max_zise, int max_count, KeyMode keyMode) {
+        return obtain(cacheDir, max_zise, max_count, false, keyMode, false);
+    }
+
+    /**
+     * 获取可以被多个进程（如主进程与 :push 进程）同时使用的缓存
+     * <p>
+     * 每次写入或删除都会通过目录旁的锁文件与其他进程同步，发现其他进程修改过目录时按磁盘重新统计大小，
+     * 保证大小和数量的限制对所有进程生效。共用同一个目录的所有进程都需要以这种方式打开。
+     */
+    public static ACache getMultiProcess(Context ctx, String cacheName) {
+        File f = new File(ctx.getCacheDir(), cacheName);
+        return getMultiProcess(f, MAX_SIZE, MAX_COUNT, KeyMode.HASH_CODE);
+    }
+
+    public static ACache getMultiProcess(File cacheDir, long max_size, int max_count, KeyMode keyMode) {
+        return obtain(cacheDir, max_size, max_count, false, keyMode, true);
+    }
+
+    /**
+     * 获取以追加日志形式存储的缓存，启动时只需回放日志，适合存放大量小数据
+     * <p>
+     * 同一个目录只能用一种存储形式打开，且只能被一个进程使用
+     */
+    public static ACache getJournal(Context ctx) {
+        return getJournal(ctx, "ACacheJournal");
+    }
+
+    public static ACache getJournal(Context ctx, String cacheName) {
+        File f = new File(ctx.getCacheDir(), cacheName);
+        return getJournal(f, MAX_SIZE, MAX_COUNT);
+    }
+
+    public static ACache getJournal(File cacheDir, long max_size, int max_count) {
+        return obtain(cacheDir, max_size, max_count, true, null, false);
+    }
+
+    private static ACache obtain(File cacheDir, long max_size, int max_count, boolean journal,
+                                 KeyMode keyMode, boolean multiProcess) {
+        String key = registryKey(cacheDir);
+        ACache manager = mInstanceMap.get(key);
         if (manager == null) {
-            manager = new ACache(cacheDir, max_zise, max_count);
-            mInstanceMap.put(cacheDir.getAbsolutePath() + myPid(), manager);
+            // 创建时会扫描目录，只允许一个线程创建
+            synchronized (mInstanceMap) {
+                manager = mInstanceMap.get(key);
+                if (manager == null) {
+                    manager = new ACache(cacheDir, max_size, max_count, journal, keyMode, multiProcess);
+                    mInstanceMap.put(key, manager);
+                }
+            }
+        }
+        if (manager.mJournal != journal || manager.mMultiProcess != multiProcess) {
+            throw new IllegalStateException(cacheDir.getAbsolutePath() + " is already opened as "
+                    + (manager.mJournal ? "journal" : manager.mMultiProcess ? "multi-process" : "file")
+                    + " cache");
         }
         return manager;
     }
 
-    private static String myPid() {
-        return "_" + android.os.Process.myPid();
+    /**
+     * 同一个目录的不同写法（相对路径、符号链接、"a/../b"）得到同一个 key
+     */
+    private static String registryKey(File cacheDir) {
+        try {
+            return cacheDir.getCanonicalPath();
+        } catch (IOException e) {
+            return cacheDir.getAbsolutePath();
+        }
     }
 
-    private ACache(File cacheDir, long max_size, int max_count) {
+    private ACache(File cacheDir, long max_size, int max_count, boolean journal, KeyMode keyMode,
+                   boolean multiProcess) {
         if (!cacheDir.exists() && !cacheDir.mkdirs()) {
             throw new RuntimeException("can't make dirs in "
                     + cacheDir.getAbsolutePath());
         }
-        mCache = new ACacheManager(cacheDir, max_size, max_count);
+        mJournal = journal;
+        mMultiProcess = multiProcess;
+        if (journal) {
+            lockJournal(cacheDir);
+            mCache = new JournalStore(cacheDir, max_size, max_count, mStats);
+        } else {
+            mCache = new ACacheManager(cacheDir, max_size, max_count, keyMode, multiProcess);
+        }
+    }
+
+    /**
+     * 日志文件只能由一个进程追加，被其他进程占用时直接失败，避免日志损坏
+     */
+    private static void lockJournal(File cacheDir) {
+        FileLock lock;
+        try {
+            lock = ProcessLock.tryLockForever(cacheDir);
+        } catch (IOException e) {
+            // 无法创建锁文件时不做限制
+            e.printStackTrace();
+            return;
+        }
+        if (lock == null) {
+            throw new RuntimeException("journal cache " + cacheDir.getAbsolutePath()
+                    + " is used by another process");
+        }
     }
 
     // =======================================
-    // ============ String数据 读写 ==============
+    // ============ 写回模式 ==============
     // =======================================
 
     /**
-     * 保存 String数据 到 缓存中
+     * 开启写回模式：写入和删除只进入内存队列后立即返回，由单个后台线程合并、批量写入磁盘，
+     * 读取时优先返回尚未写入的数据。适合在主线程或请求路径上写缓存的场景。
+     * <p>
+     * 进程退出前如需保证落盘，调用 {@link #flush()}
+     */
+    public synchronized void enableWriteBehind() {
+        if (!(mCache instanceof WriteBehindStore)) {
+            mCache = new WriteBehindStore(mCache);
+        }
+    }
+
+    /**
+     * 关闭写回模式，等待队列中的修改写入后恢复同步写入
+     */
+    public synchronized void disableWriteBehind() {
+        if (mCache instanceof WriteBehindStore) {
+            WriteBehindStore store = (WriteBehindStore) mCache;
+            store.awaitIdle(0);
+            mCache = store.getDelegate();
+            store.awaitIdle(0);
+        }
+    }
+
+    /**
+     * 等待写回队列中的修改全部写入，并把已写入的数据刷到磁盘
+     */
+    public void flush() {
+        mCache.sync();
+    }
+
+    /**
+     * 等待写回队列空闲
      *
-     * @param key   保存的key
-     * @param value 保存的String数据
+     * @return 超时前是否已全部写入
      */
-    public void put(String key, String value) {
-        File file = mCache.newFile(key);
-        BufferedWriter out = null;
-        try {
-            out = new BufferedWriter(new FileWriter(file), 1024);
-            out.write(value);
-        } catch (IOException e) {
-            e.printStackTrace();
-        } finally {
-            if (out != null) {
+    public boolean awaitIdle(long timeout, TimeUnit unit) {
+        CacheStore store = mCache;
+        if (store instanceof WriteBehindStore) {
+            return ((WriteBehindStore) store).awaitIdle(Math.max(1, unit.toMillis(timeout)));
+        }
+        return true;
+    }
+
+    // =======================================
+    // ============ 压缩 ==============
+    // =======================================
+
+    /**
+     * 开启压缩，不小于 1KB 的数据以 Deflate 压缩后保存，大小限制按压缩后的字节计算
+     */
+    public void enableCompression() {
+        enableCompression(CacheCompressor.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * 开启压缩，压缩后没有变小的数据仍直接保存；已保存的数据不受影响，两种数据可以同时读取。
+     * <p>
+     * 只对文件形式的缓存生效，日志形式的缓存（{@link #getJournal}）与流式写入的数据不压缩。
+     *
+     * @param threshold 小于该长度（字节）的数据不压缩
+     */
+    public void enableCompression(int threshold) {
+        ACacheManager manager = fileStore();
+        if (manager != null) {
+            manager.setCompressThreshold(Math.max(0, threshold));
+        }
+    }
+
+    public void disableCompression() {
+        ACacheManager manager = fileStore();
+        if (manager != null) {
+            manager.setCompressThreshold(-1);
+        }
+    }
+
+    /**
+     * @return 文件形式的底层存储，日志形式时返回 null
+     */
+    private ACacheManager fileStore() {
+        CacheStore store = mCache;
+        if (store instanceof WriteBehindStore) {
+            store = ((WriteBehindStore) store).getDelegate();
+        }
+        return store instanceof ACacheManager ? (ACacheManager) store : null;
+    }
+
+    // =======================================
+    // ============ 过期清理 ==============
+    // =======================================
+
+    /**
+     * 开启后台过期清理，每 5 分钟删除一批已过期的数据
+     */
+    public void enableExpirySweeper() {
+        enableExpirySweeper(DEFAULT_SWEEP_PERIOD, TimeUnit.SECONDS, DEFAULT_SWEEP_BATCH);
+    }
+
+    /**
+     * 开启后台过期清理：在后台线程中按过期时间从早到晚、每次最多删除 batch 个已过期的数据，
+     * 并同步更新大小与数量的统计，避免过期数据占用空间、把未过期的数据挤出缓存
+     *
+     * @param period 清理间隔
+     * @param batch  每次最多删除的数量，用于限制每次清理的磁盘 IO
+     */
+    public synchronized void enableExpirySweeper(long period, TimeUnit unit, final int batch) {
+        disableExpirySweeper();
+        mSweeper = scheduler().scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
                 try {
-                    out.flush();
-                    out.close();
-                } catch (IOException e) {
+                    mCache.sweep(batch);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }, period, period, unit);
+    }
+
+    public synchronized void disableExpirySweeper() {
+        if (mSweeper != null) {
+            mSweeper.cancel(false);
+            mSweeper = null;
+        }
+    }
+
+    // =======================================
+    // ============ 统计 ==============
+    // =======================================
+
+    /**
+     * @return 自创建（或上次 {@link #resetStats()}）以来的统计数据
+     */
+    public CacheStats getStats() {
+        return mStats.snapshot();
+    }
+
+    public void resetStats() {
+        mStats.reset();
+    }
+
+    /**
+     * 定期在后台线程中回调统计数据
+     *
+     * @param listener 为 null 时停止回调
+     * @param period   回调间隔
+     */
+    public synchronized void setStatsListener(final CacheStats.Listener listener, long period, TimeUnit unit) {
+        if (mStatsReport != null) {
+            mStatsReport.cancel(false);
+            mStatsReport = null;
+        }
+        if (listener == null) {
+            return;
+        }
+        mStatsReport = scheduler().scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    listener.onStats(ACache.this, mStats.snapshot());
+                } catch (RuntimeException e) {
+                    // 不让一次异常终止后续的回调
                     e.printStackTrace();
                 }
             }
-            mCache.put(file);
+        }, period, period, unit);
+    }
+
+    /**
+     * 统计回调与过期清理共用的后台线程
+     */
+    private static synchronized ScheduledExecutorService scheduler() {
+        if (sScheduler == null) {
+            sScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "ACache-scheduler");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+        return sScheduler;
+    }
+
+    private CacheStore.Record readRecord(String key) {
+        long start = System.nanoTime();
+        CacheStore.Record record = mCache.get(key);
+        mStats.recordGet(start, record == null ? -1 : record.data.length);
+        return record;
+    }
+
+    private void writeRecord(String key, byte[] value, int saveTime) {
+        long start = System.nanoTime();
+        mCache.put(key, value, saveTime);
+        mStats.recordPut(start, value.length);
+    }
+
+    // =======================================
+    // ============ 内存一级缓存 ==============
+    // =======================================
+
+    /**
+     * 开启内存一级缓存，读取过的数据以解码后的形式保存在内存中，重复读取时不再访问磁盘
+     * <p>
+     * 注意：{@link #getAsObject(String)} 命中时返回的是同一个对象，不要修改它
+     *
+     * @param maxWeight 内存缓存的最大权重，约等于占用的字节数
+     */
+    public void enableMemoryCache(long maxWeight) {
+        mMemory = new MemoryCache(maxWeight);
+    }
+
+    /**
+     * 关闭内存一级缓存
+     */
+    public void disableMemoryCache() {
+        mMemory = null;
+    }
+
+    /**
+     * 使内存缓存中的某个 key 失效，不影响磁盘数据
+     *
+     * @param key 保存的key
+     */
+    public void invalidateMemory(String key) {
+        MemoryCache memory = mMemory;
+        if (memory != null) {
+            memory.invalidate(key);
         }
     }
 
+    /**
+     * @return 内存缓存的命中次数，未开启时返回 0
+     */
+    public long getMemoryHitCount() {
+        MemoryCache memory = mMemory;
+        return memory == null ? 0 : memory.getHitCount();
+    }
+
+    /**
+     * @return 内存缓存的未命中次数，未开启时返回 0
+     */
+    public long getMemoryMissCount() {
+        MemoryCache memory = mMemory;
+        return memory == null ? 0 : memory.getMissCount();
+    }
+
+    /**
+     * 缓存文件已过期，需要删除
+     */
+    private static final CacheStore.Record EXPIRED = new CacheStore.Record(null, 0);
+    /**
+     * 缓存文件被截断或校验失败，视为未命中并删除
+     */
+    private static final CacheStore.Record CORRUPT = new CacheStore.Record(null, 0);
+
+    private static long expireAt(int saveTime) {
+        return saveTime == -1 ? 0 : System.currentTimeMillis() + saveTime * 1000L;
+    }
+
+    // =======================================
+    // ============ String数据 读写 ==============
+    // =======================================
+
+    /**
+     * 保存 String数据 到 缓存中
+     *
+     * @param key   保存的key
+     * @param value 保存的String数据
+     */
+    public void put(String key, String value) {
+        put(key, value, -1);
+    }
+
     /**
      * 保存 String数据 到 缓存中
      *
@@ -145,7 +527,11 @@ public class ACache {
      * @param saveTime 保存的时间，单位：秒
      */
     public void put(String key, String value, int saveTime) {
-        put(key, Utils.newStringWithDateInfo(saveTime, value));
+        writeRecord(key, value.getBytes(StandardCharsets.UTF_8), saveTime);
+        MemoryCache memory = mMemory;
+        if (memory != null) {
+            memory.put(key, value, expireAt(saveTime), MemoryCache.weightOf(value));
+        }
     }
 
     /**
@@ -155,38 +541,25 @@ public class ACache {
      * @return String 数据
      */
     public String getAsString(String key) {
-        File file = mCache.get(key);
-        if (!file.exists())
-            return null;
-        boolean removeFile = false;
-        BufferedReader in = null;
-        try {
-            in = new BufferedReader(new FileReader(file));
-            String readString = "";
-            String currentLine;
-            while ((currentLine = in.readLine()) != null) {
-                readString += currentLine;
-            }
-            if (!Utils.isDue(readString)) {
-                return Utils.clearDateInfo(readString);
-            } else {
-                removeFile = true;
-                return null;
+        MemoryCache memory = mMemory;
+        long generation = 0;
+        if (memory != null) {
+            String value = memory.get(key, String.class);
+            if (value != null) {
+                mStats.recordHit();
+                return value;
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            generation = memory.generation();
+        }
+        CacheStore.Record record = readRecord(key);
+        if (record == null) {
             return null;
-        } finally {
-            if (in != null) {
-                try {
-                    in.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
-            if (removeFile)
-                remove(key);
         }
+        String value = new String(record.data, StandardCharsets.UTF_8);
+        if (memory != null) {
+            memory.fill(key, value, record.expireAt, MemoryCache.weightOf(value), generation);
+        }
+        return value;
     }
 
     // =======================================
@@ -284,24 +657,7 @@ public class ACache {
      * @param value 保存的数据
      */
     public void put(String key, byte[] value) {
-        File file = mCache.newFile(key);
-        FileOutputStream out = null;
-        try {
-            out = new FileOutputStream(file);
-            out.write(value);
-        } catch (Exception e) {
-            e.printStackTrace();
-        } finally {
-            if (out != null) {
-                try {
-                    out.flush();
-                    out.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
-            mCache.put(file);
-        }
+        put(key, value, -1);
     }
 
     /**
@@ -312,7 +668,8 @@ public class ACache {
      * @param saveTime 保存的时间，单位：秒
      */
     public void put(String key, byte[] value, int saveTime) {
-        put(key, Utils.newByteArrayWithDateInfo(saveTime, value));
+        writeRecord(key, value, saveTime);
+        invalidateMemory(key);
     }
 
     /**
@@ -322,41 +679,47 @@ public class ACache {
      * @return byte 数据
      */
     public byte[] getAsBinary(String key) {
-        RandomAccessFile RAFile = null;
-        boolean removeFile = false;
-        try {
-            File file = mCache.get(key);
-            if (!file.exists())
-                return null;
-            RAFile = new RandomAccessFile(file, "r");
-            byte[] byteArray = new byte[(int) RAFile.length()];
-            RAFile.read(byteArray);
-            if (!Utils.isDue(byteArray)) {
-                return Utils.clearDateInfo(byteArray);
-            } else {
-                removeFile = true;
-                return null;
+        MemoryCache memory = mMemory;
+        long generation = 0;
+        if (memory != null) {
+            byte[] value = memory.get(key, byte[].class);
+            if (value != null) {
+                mStats.recordHit();
+                return value.clone();
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+            generation = memory.generation();
+        }
+        CacheStore.Record record = readRecord(key);
+        if (record == null) {
             return null;
-        } finally {
-            if (RAFile != null) {
-                try {
-                    RAFile.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
-            if (removeFile)
-                remove(key);
         }
+        if (memory != null) {
+            memory.fill(key, record.data, record.expireAt, MemoryCache.weightOf(record.data), generation);
+            return record.data.clone();
+        }
+        return record.data;
     }
 
     // =======================================
     // ============= 序列化 数据 读写 ===============
     // =======================================
 
+    /**
+     * 设置对象的序列化方式，默认为 {@link JavaCacheSerializer}
+     * <p>
+     * 切换序列化方式后，之前以其他方式写入的数据需使用原来的序列化器读取
+     */
+    public void setSerializer(CacheSerializer serializer) {
+        if (serializer == null) {
+            throw new NullPointerException("serializer == null");
+        }
+        mSerializer = serializer;
+    }
+
+    public CacheSerializer getSerializer() {
+        return mSerializer;
+    }
+
     /**
      * 保存 Serializable数据 到 缓存中
      *
@@ -375,25 +738,36 @@ public class ACache {
      * @param saveTime 保存的时间，单位：秒
      */
     public void put(String key, Serializable value, int saveTime) {
-        ByteArrayOutputStream baos = null;
-        ObjectOutputStream oos = null;
+        putObject(key, value, saveTime, mSerializer);
+    }
+
+    /**
+     * 使用当前的序列化方式保存对象
+     *
+     * @param key   保存的key
+     * @param value 保存的value
+     */
+    public void putObject(String key, Object value) {
+        putObject(key, value, -1, mSerializer);
+    }
+
+    public void putObject(String key, Object value, int saveTime) {
+        putObject(key, value, saveTime, mSerializer);
+    }
+
+    /**
+     * 使用指定的序列化方式保存对象
+     *
+     * @param key        保存的key
+     * @param value      保存的value
+     * @param saveTime   保存的时间，单位：秒，-1 表示不过期
+     * @param serializer 序列化方式，读取时需使用同一种
+     */
+    public void putObject(String key, Object value, int saveTime, CacheSerializer serializer) {
         try {
-            baos = new ByteArrayOutputStream();
-            oos = new ObjectOutputStream(baos);
-            oos.writeObject(value);
-            byte[] data = baos.toByteArray();
-            if (saveTime != -1) {
-                put(key, data, saveTime);
-            } else {
-                put(key, data);
-            }
+            put(key, serializer.serialize(value), saveTime);
         } catch (Exception e) {
             e.printStackTrace();
-        } finally {
-            try {
-                oos.close();
-            } catch (IOException e) {
-            }
         }
     }
 
@@ -404,35 +778,78 @@ public class ACache {
      * @return Serializable 数据
      */
     public Object getAsObject(String key) {
-        byte[] data = getAsBinary(key);
-        if (data != null) {
-            ByteArrayInputStream bais = null;
-            ObjectInputStream ois = null;
-            try {
-                bais = new ByteArrayInputStream(data);
-                ois = new ObjectInputStream(bais);
-                Object reObject = ois.readObject();
-                return reObject;
-            } catch (Exception e) {
-                e.printStackTrace();
+        return getAsObject(key, Object.class, mSerializer);
+    }
+
+    /**
+     * 使用当前的序列化方式读取对象
+     *
+     * @param key  保存的key
+     * @param type 对象的类型，Gson 等需要类型信息的序列化方式必须传入具体类型
+     */
+    public <T> T getAsObject(String key, Class<T> type) {
+        return getAsObject(key, type, mSerializer);
+    }
+
+    public <T> T getAsObject(String key, Type type) {
+        return getAsObject(key, type, mSerializer);
+    }
+
+    public <T> T getAsObject(String key, Class<T> type, CacheSerializer serializer) {
+        return getAsObject(key, (Type) type, serializer);
+    }
+
+    /**
+     * 使用指定的序列化方式读取对象
+     *
+     * @param key        保存的key
+     * @param type       对象的类型，如 {@code new TypeToken<List<Bean>>(){}.getType()}
+     * @param serializer 序列化方式，需与写入时一致
+     * @return 对象，不存在、已过期或无法解析时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getAsObject(String key, Type type, CacheSerializer serializer) {
+        Class<?> rawType = rawType(type);
+        MemoryCache memory = mMemory;
+        long generation = 0;
+        if (memory != null) {
+            CachedObject cached = memory.get(key, CachedObject.class);
+            if (cached != null && cached.serializer == serializer
+                    && (cached.value == null || rawType.isInstance(cached.value))) {
+                mStats.recordHit();
+                return (T) cached.value;
+            }
+            generation = memory.generation();
+        }
+        CacheStore.Record record = readRecord(key);
+        if (record == null) {
+            return null;
+        }
+        try {
+            Object value = serializer.deserialize(record.data, type);
+            if (value != null && !rawType.isInstance(value)) {
                 return null;
-            } finally {
-                try {
-                    if (bais != null)
-                        bais.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-                try {
-                    if (ois != null)
-                        ois.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
             }
+            if (memory != null) {
+                memory.fill(key, new CachedObject(value, serializer), record.expireAt,
+                        MemoryCache.weightOf(record.data), generation);
+            }
+            return (T) value;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
         }
-        return null;
+    }
 
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            Class<?> clazz = (Class<?>) type;
+            return clazz.isPrimitive() ? Object.class : clazz;
+        }
+        if (type instanceof ParameterizedType) {
+            return rawType(((ParameterizedType) type).getRawType());
+        }
+        return Object.class;
     }
 
     public Integer getAsInt(String key) {
@@ -542,6 +959,61 @@ public class ACache {
         return Utils.bitmap2Drawable(Utils.Bytes2Bimap(getAsBinary(key)));
     }
 
+    // =======================================
+    // ============== 流式 读写 =============
+    // =======================================
+
+    /**
+     * 以流的形式读取数据，适合较大的数据，不会整体读入内存
+     *
+     * @param key 保存的key
+     * @return 输入流，不存在或已过期时返回 null；读到结尾时校验数据，损坏时抛出 IOException
+     */
+    public InputStream openInputStream(String key) throws IOException {
+        return mCache.openInputStream(key);
+    }
+
+    /**
+     * 以流的形式写入数据，关闭输出流后数据才可见
+     *
+     * @param key 保存的key
+     */
+    public OutputStream openOutputStream(String key) throws IOException {
+        return openOutputStream(key, -1);
+    }
+
+    /**
+     * 以流的形式写入数据，关闭输出流后数据才可见
+     *
+     * @param key      保存的key
+     * @param saveTime 保存的时间，单位：秒
+     */
+    public OutputStream openOutputStream(final String key, int saveTime) throws IOException {
+        invalidateMemory(key);
+        return new FilterOutputStream(mCache.openOutputStream(key, saveTime)) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                super.close();
+                invalidateMemory(key);
+            }
+        };
+    }
+
+    /**
+     * 以只读内存映射的形式读取数据，不会复制到 Java 堆中；不校验数据完整性
+     *
+     * @param key 保存的key
+     * @return 只读的数据，不存在或已过期时返回 null
+     */
+    public ByteBuffer mapReadOnly(String key) throws IOException {
+        return mCache.mapReadOnly(key);
+    }
+
     /**
      * 获取缓存文件
      *
@@ -549,10 +1021,7 @@ public class ACache {
      * @return value 缓存的文件
      */
     public File file(String key) {
-        File f = mCache.newFile(key);
-        if (f.exists())
-            return f;
-        return null;
+        return mCache.file(key);
     }
 
     /**
@@ -562,6 +1031,7 @@ public class ACache {
      * @return 是否移除成功
      */
     public boolean remove(String key) {
+        invalidateMemory(key);
         return mCache.remove(key);
     }
 
@@ -569,27 +1039,112 @@ public class ACache {
      * 清除所有数据
      */
     public void clear() {
+        MemoryCache memory = mMemory;
+        if (memory != null) {
+            memory.clear();
+        }
         mCache.clear();
     }
 
+    /**
+     * 过期索引中的一项，按过期时间、文件名排序
+     */
+    private static final class Expiry implements Comparable<Expiry> {
+        final File file;
+        final long expireAt;
+
+        Expiry(File file, long expireAt) {
+            this.file = file;
+            this.expireAt = expireAt;
+        }
+
+        @Override
+        public int compareTo(Expiry o) {
+            if (expireAt != o.expireAt) {
+                return expireAt < o.expireAt ? -1 : 1;
+            }
+            return file.compareTo(o.file);
+        }
+    }
+
+    /**
+     * 内存缓存中反序列化后的对象，与 String、byte[] 区分开
+     */
+    private static final class CachedObject {
+        final Object value;
+        final CacheSerializer serializer;
+
+        CachedObject(Object value, CacheSerializer serializer) {
+            this.value = value;
+            this.serializer = serializer;
+        }
+    }
+
+    /**
+     * 缓存文件的命名方式
+     */
+    public enum KeyMode {
+        /**
+         * 以 key.hashCode() 命名，不同的 key 可能互相覆盖
+         */
+        HASH_CODE,
+        /**
+         * 以 key 的 SHA-256 命名，文件头保存原始 key，读取时校验；
+         * 读取时发现旧的 hashCode 文件会原地迁移为新格式
+         */
+        DIGEST
+    }
+
     /**
      * @author 杨福海（michael） www.yangfuhai.com
      * @version 1.0
      * @title 缓存管理器
      */
-    public class ACacheManager {
+    public class ACacheManager implements CacheStore {
         private final AtomicLong cacheSize;
         private final AtomicInteger cacheCount;
         private final long sizeLimit;
         private final int countLimit;
-        private final Map<File, Long> lastUsageDates = Collections
-                .synchronizedMap(new HashMap<File, Long>());
+        /**
+         * 按访问顺序排列的缓存文件 → 文件大小，队头即最久未使用的文件，所有读写都需持有该对象的锁
+         */
+        private final LinkedHashMap<File, Long> lruEntries = new LinkedHashMap<>(16, 0.75f, true);
+        /**
+         * 缓存文件 → 过期时间（0 表示不过期），启动时扫描到的文件由后台清理任务逐步读取文件头补全；
+         * 与 lruEntries 使用同一把锁
+         */
+        private final HashMap<File, Long> expiryOf = new HashMap<>();
+        /**
+         * 按过期时间排序的会过期的文件，后台清理时从队头取出已过期的文件
+         */
+        private final TreeSet<Expiry> expiryQueue = new TreeSet<>();
         protected File cacheDir;
+        private final KeyMode keyMode;
+        /**
+         * 多进程共用目录时的跨进程锁，单进程时为 null
+         */
+        private final ProcessLock processLock;
+        /**
+         * 不小于该长度的数据压缩后保存，-1 表示不压缩
+         */
+        private volatile int compressThreshold = -1;
+        private static final String TMP_SUFFIX = ".tmp";
+        /**
+         * 多进程模式下，超过该时间的临时文件才视为未写完的残留
+         */
+        private static final long TMP_STALE_MILLIS = 60 * 60 * 1000;
+        /**
+         * 后台清理时每次最多读取文件头的数量
+         */
+        private static final int SWEEP_SCAN_BATCH = 256;
 
-        private ACacheManager(File cacheDir, long sizeLimit, int countLimit) {
+        private ACacheManager(File cacheDir, long sizeLimit, int countLimit, KeyMode keyMode,
+                              boolean multiProcess) {
             this.cacheDir = cacheDir;
+            this.keyMode = keyMode;
             this.sizeLimit = sizeLimit;
             this.countLimit = countLimit;
+            this.processLock = multiProcess ? new ProcessLock(cacheDir) : null;
             cacheSize = new AtomicLong();
             cacheCount = new AtomicInteger();
             calculateCacheSizeAndCacheCount();
@@ -602,113 +1157,776 @@ public class ACache {
             new Thread(new Runnable() {
                 @Override
                 public void run() {
-                    int size = 0;
-                    int count = 0;
-                    File[] cachedFiles = cacheDir.listFiles();
-                    if (cachedFiles != null) {
+                    if (processLock != null) {
+                        // 拿到锁时会按磁盘重新统计
+                        boolean locked = lockShared();
+                        List<File> victims = Collections.emptyList();
+                        try {
+                            synchronized (lruEntries) {
+                                victims = trimToLowWater(null);
+                            }
+                            mStats.recordEvictions(victims.size());
+                            deleteAll(victims);
+                        } finally {
+                            unlockShared(locked, !victims.isEmpty());
+                        }
+                        return;
+                    }
+                    File[] cachedFiles = listCachedFiles();
+                    if (cachedFiles == null) {
+                        return;
+                    }
+                    List<File> victims;
+                    synchronized (lruEntries) {
+                        // 扫描期间写入的文件比磁盘上已有的文件更新，放在队尾
+                        LinkedHashMap<File, Long> recent = new LinkedHashMap<>(lruEntries);
+                        lruEntries.clear();
                         for (File cachedFile : cachedFiles) {
-                            size += calculateSize(cachedFile);
-                            count += 1;
-                            lastUsageDates.put(cachedFile,
-                                    cachedFile.lastModified());
+                            if (!recent.containsKey(cachedFile)) {
+                                lruEntries.put(cachedFile, calculateSize(cachedFile));
+                            }
+                        }
+                        lruEntries.putAll(recent);
+                        long size = 0;
+                        for (Long fileSize : lruEntries.values()) {
+                            size += fileSize;
                         }
                         cacheSize.set(size);
-                        cacheCount.set(count);
+                        cacheCount.set(lruEntries.size());
+                        victims = trimToLowWater(null);
                     }
+                    mStats.recordEvictions(victims.size());
+                    deleteAll(victims);
                 }
             }).start();
         }
 
-        private void put(File file) {
-            int curCacheCount = cacheCount.get();
-            while (curCacheCount + 1 > countLimit) {
-                long freedSize = removeNext();
-                cacheSize.addAndGet(-freedSize);
+        /**
+         * 列出目录中的缓存文件，按最后修改时间从旧到新排列，同时删除未写完的临时文件
+         */
+        private File[] listCachedFiles() {
+            final long now = System.currentTimeMillis();
+            File[] cachedFiles = cacheDir.listFiles(new FileFilter() {
+                @Override
+                public boolean accept(File file) {
+                    if (file.getName().endsWith(TMP_SUFFIX)) {
+                        // 上次未写完的临时文件；多进程时可能是其他进程正在写入的文件
+                        if (processLock == null || now - file.lastModified() > TMP_STALE_MILLIS) {
+                            file.delete();
+                        }
+                        return false;
+                    }
+                    return true;
+                }
+            });
+            if (cachedFiles == null) {
+                return null;
+            }
+            final Map<File, Long> modifiedOf = new HashMap<>();
+            for (File cachedFile : cachedFiles) {
+                modifiedOf.put(cachedFile, cachedFile.lastModified());
+            }
+            Arrays.sort(cachedFiles, new Comparator<File>() {
+                @Override
+                public int compare(File o1, File o2) {
+                    long l1 = modifiedOf.get(o1);
+                    long l2 = modifiedOf.get(o2);
+                    return l1 < l2 ? -1 : (l1 == l2 ? 0 : 1);
+                }
+            });
+            return cachedFiles;
+        }
 
-                curCacheCount = cacheCount.addAndGet(-1);
+        /**
+         * 多进程模式下获取跨进程锁；其他进程修改过目录时，按其记录的文件名更新 cacheSize 和 cacheCount，
+         * 无法得知修改了哪些文件时按磁盘重新统计。单进程模式下什么都不做。
+         *
+         * @return 是否获取到锁，需传给 {@link #unlockShared}
+         */
+        private boolean lockShared() {
+            if (processLock == null) {
+                return false;
+            }
+            List<String> changes;
+            try {
+                changes = processLock.lock();
+            } catch (IOException e) {
+                // 拿不到文件锁时退化为单进程的行为
+                e.printStackTrace();
+                return false;
             }
-            cacheCount.addAndGet(1);
+            if (changes == null) {
+                reload();
+            } else {
+                reconcile(changes);
+            }
+            return true;
+        }
 
-            long valueSize = calculateSize(file);
-            long curCacheSize = cacheSize.get();
-            while (curCacheSize + valueSize > sizeLimit) {
-                long freedSize = removeNext();
-                curCacheSize = cacheSize.addAndGet(-freedSize);
+        private void unlockShared(boolean locked, boolean modified) {
+            if (locked) {
+                processLock.unlock(modified);
             }
-            cacheSize.addAndGet(valueSize);
+        }
 
-            Long currentTime = System.currentTimeMillis();
-            file.setLastModified(currentTime);
-            lastUsageDates.put(file, currentTime);
+        /**
+         * 记录持有跨进程锁期间写入或删除的文件，供其他进程增量更新
+         */
+        private void changed(File file) {
+            if (processLock != null) {
+                processLock.record(file.getName());
+            }
+        }
+
+        /**
+         * 只重新读取其他进程改过的文件的大小，并移到 LRU 队尾；过期时间由后台清理重新读取
+         */
+        private void reconcile(List<String> names) {
+            if (names.isEmpty()) {
+                return;
+            }
+            synchronized (lruEntries) {
+                for (String name : names) {
+                    File file = new File(cacheDir, name);
+                    unindexExpiry(file);
+                    Long oldSize = lruEntries.remove(file);
+                    if (oldSize != null) {
+                        cacheSize.addAndGet(-oldSize);
+                        cacheCount.addAndGet(-1);
+                    }
+                    if (file.exists()) {
+                        long size = calculateSize(file);
+                        lruEntries.put(file, size);
+                        cacheSize.addAndGet(size);
+                        cacheCount.addAndGet(1);
+                    }
+                }
+            }
         }
 
-        private File get(String key) {
+        /**
+         * 按磁盘上的文件重建 LRU，顺序以最后修改时间为准（读取时会更新该时间）
+         */
+        private void reload() {
+            File[] cachedFiles = listCachedFiles();
+            synchronized (lruEntries) {
+                lruEntries.clear();
+                // 其他进程可能已覆盖了文件，过期时间需要重新读取
+                expiryOf.clear();
+                expiryQueue.clear();
+                long size = 0;
+                if (cachedFiles != null) {
+                    for (File cachedFile : cachedFiles) {
+                        long fileSize = calculateSize(cachedFile);
+                        lruEntries.put(cachedFile, fileSize);
+                        size += fileSize;
+                    }
+                }
+                cacheSize.set(size);
+                cacheCount.set(lruEntries.size());
+            }
+        }
+
+        @Override
+        public void put(String key, byte[] value, int saveTime) {
             File file = newFile(key);
-            Long currentTime = System.currentTimeMillis();
-            file.setLastModified(currentTime);
-            lastUsageDates.put(file, currentTime);
+            // 多进程时写入和重命名都在锁内进行
+            boolean locked = lockShared();
+            try {
+                writeFile(file, key, value, saveTime);
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                try {
+                    put(file);
+                } finally {
+                    unlockShared(locked, true);
+                }
+            }
+        }
+
+        @Override
+        public Record get(String key) {
+            RandomAccessFile RAFile = null;
+            boolean removeFile = false;
+            try {
+                File file = touch(key);
+                if (!file.exists())
+                    return keyMode == KeyMode.DIGEST ? migrate(key, file) : null;
+                RAFile = new RandomAccessFile(file, "r");
+                Record record = readFile(RAFile, key);
+                if (record == EXPIRED) {
+                    mStats.recordExpired();
+                    removeFile = true;
+                    return null;
+                }
+                if (record == CORRUPT) {
+                    removeFile = true;
+                    return null;
+                }
+                return record;
+            } catch (Exception e) {
+                e.printStackTrace();
+                return null;
+            } finally {
+                if (RAFile != null) {
+                    try {
+                        RAFile.close();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+                if (removeFile)
+                    remove(key);
+            }
+        }
 
+        /**
+         * @param threshold 不小于该长度的数据压缩后保存，-1 表示不压缩
+         */
+        void setCompressThreshold(int threshold) {
+            compressThreshold = threshold;
+        }
+
+        /**
+         * 写入带二进制文件头的缓存文件，开启压缩且压缩后变小时保存压缩后的数据
+         */
+        private void writeFile(File file, String key, byte[] value, int saveTime) throws IOException {
+            byte flags = 0;
+            int threshold = compressThreshold;
+            if (threshold >= 0 && value.length >= threshold) {
+                byte[] compressed = CacheCompressor.deflate(value);
+                if (compressed != null) {
+                    value = compressed;
+                    flags = EntryHeader.FLAG_DEFLATE;
+                }
+            }
+            EntryHeader header = new EntryHeader(key, flags, System.currentTimeMillis(), saveTime,
+                    value.length, EntryHeader.crc(value));
+            // 写入临时文件后重命名，读取方不会看到只写了一部分的文件
+            File tmp = newTmpFile(file);
+            FileOutputStream out = new FileOutputStream(tmp);
+            try {
+                out.write(header.encode());
+                out.write(value);
+                out.flush();
+            } catch (IOException e) {
+                out.close();
+                tmp.delete();
+                throw e;
+            }
+            out.close();
+            // 先更新过期时间再替换文件，后台清理时据此判断文件是否已被覆盖
+            indexExpiry(file, header.expireAt());
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+                throw new IOException("can't rename " + tmp.getAbsolutePath());
+            }
+        }
+
+        /**
+         * 在缓存目录中新建临时文件，每次写入使用不同的文件名，同一 key 并发写入时互不影响，
+         * 最后重命名的一次生效
+         */
+        private File newTmpFile(File target) throws IOException {
+            return File.createTempFile("." + target.getName() + ".", TMP_SUFFIX, cacheDir);
+        }
+
+        /**
+         * 读取缓存文件，兼容二进制文件头与字符串时间前缀两种格式。
+         * 二进制文件头的文件在过期时只读取文件头，不读入数据。
+         *
+         * @return 数据；文件属于其他 key 时返回 null；已过期时返回 {@link #EXPIRED}；
+         * 二进制文件头的文件被截断或校验失败时返回 {@link #CORRUPT}
+         */
+        private Record readFile(RandomAccessFile RAFile, String key) throws IOException {
+            EntryHeader header = EntryHeader.read(RAFile);
+            if (header == EntryHeader.CORRUPT) {
+                return CORRUPT;
+            }
+            if (header != null) {
+                if (!header.key.equals(key)) {
+                    return null;
+                }
+                if (header.isDue(System.currentTimeMillis())) {
+                    return EXPIRED;
+                }
+                byte[] data = new byte[header.length];
+                RAFile.readFully(data);
+                if (EntryHeader.crc(data) != header.checksum) {
+                    return CORRUPT;
+                }
+                if (header.isCompressed()) {
+                    data = CacheCompressor.inflate(data);
+                }
+                return new Record(data, header.expireAt());
+            }
+            RAFile.seek(0);
+            byte[] byteArray = new byte[(int) RAFile.length()];
+            RAFile.readFully(byteArray);
+            if (Utils.isDue(byteArray)) {
+                return EXPIRED;
+            }
+            return new Record(Utils.clearDateInfo(byteArray), Utils.expireAt(byteArray));
+        }
+
+        /**
+         * 把旧的 key.hashCode() 文件迁移为以摘要命名的文件，读取时按需进行
+         *
+         * @param key    保存的key
+         * @param target 新格式的文件
+         * @return 旧文件中未过期的数据，没有旧文件时返回 null
+         */
+        private Record migrate(String key, File target) throws IOException {
+            File legacy = legacyFile(key);
+            if (!legacy.exists()) {
+                return null;
+            }
+            RandomAccessFile RAFile = new RandomAccessFile(legacy, "r");
+            Record record;
+            try {
+                record = readFile(RAFile, key);
+            } finally {
+                RAFile.close();
+            }
+            if (record == null) {
+                // 属于另一个 hashCode 相同的 key
+                return null;
+            }
+            if (record == EXPIRED || record == CORRUPT) {
+                delete(legacy);
+                return null;
+            }
+            int saveTime = -1;
+            if (record.expireAt != 0) {
+                long remain = record.expireAt - System.currentTimeMillis();
+                saveTime = (int) Math.max(0, (remain + 999) / 1000);
+            }
+            boolean locked = lockShared();
+            try {
+                writeFile(target, key, record.data, saveTime);
+                delete(legacy);
+                put(target);
+            } finally {
+                unlockShared(locked, true);
+            }
+            return record;
+        }
+
+        @Override
+        public InputStream openInputStream(String key) throws IOException {
+            File file = touch(key);
+            if (!file.exists()) {
+                // DIGEST 模式下会触发迁移
+                Record record = get(key);
+                return record == null ? null : new ByteArrayInputStream(record.data);
+            }
+            FileInputStream in = new FileInputStream(file);
+            EntryHeader header;
+            try {
+                header = EntryHeader.read(new DataInputStream(in), file.length());
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+            if (header == null || !header.key.equals(key)
+                    || header.isDue(System.currentTimeMillis())) {
+                in.close();
+                // 旧格式的文件数据较小，整体读入；get 同时负责删除已过期的文件
+                Record record = get(key);
+                return record == null ? null : new ByteArrayInputStream(record.data);
+            }
+            InputStream entry = new EntryInputStream(new BufferedInputStream(in), header.length, header.checksum);
+            return header.isCompressed() ? new InflaterInputStream(entry) : entry;
+        }
+
+        @Override
+        public OutputStream openOutputStream(String key, int saveTime) throws IOException {
+            return new EntryOutputStream(key, saveTime);
+        }
+
+        @Override
+        public ByteBuffer mapReadOnly(String key) throws IOException {
+            File file = touch(key);
+            if (file.exists()) {
+                RandomAccessFile RAFile = new RandomAccessFile(file, "r");
+                try {
+                    EntryHeader header = EntryHeader.read(RAFile);
+                    if (header != null && header.key.equals(key) && !header.isCompressed()
+                            && !header.isDue(System.currentTimeMillis())) {
+                        // 关闭文件后映射仍然有效
+                        return RAFile.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                                RAFile.getFilePointer(), header.length);
+                    }
+                } finally {
+                    RAFile.close();
+                }
+            }
+            Record record = get(key);
+            return record == null ? null : ByteBuffer.wrap(record.data).asReadOnlyBuffer();
+        }
+
+        /**
+         * 一个 key 一个文件，没有可以合并的 fsync，与同步写入时一样不做处理
+         */
+        @Override
+        public void sync() {
+        }
+
+        @Override
+        public File file(String key) {
+            File f = newFile(key);
+            if (f.exists())
+                return f;
+            return null;
+        }
+
+        private void put(File file) {
+            long valueSize = calculateSize(file);
+            file.setLastModified(System.currentTimeMillis());
+            boolean locked = lockShared();
+            try {
+                List<File> victims;
+                synchronized (lruEntries) {
+                    Long oldSize = lruEntries.put(file, valueSize);
+                    if (oldSize != null) {
+                        cacheSize.addAndGet(-oldSize);
+                    } else {
+                        cacheCount.addAndGet(1);
+                    }
+                    cacheSize.addAndGet(valueSize);
+                    victims = trimToLowWater(file);
+                }
+                changed(file);
+                mStats.recordEvictions(victims.size());
+                deleteAll(victims);
+            } finally {
+                unlockShared(locked, true);
+            }
+        }
+
+        private File touch(String key) {
+            File file = newFile(key);
+            file.setLastModified(System.currentTimeMillis());
+            synchronized (lruEntries) {
+                // 访问顺序的 LinkedHashMap 在 get 时把该项移到队尾
+                lruEntries.get(file);
+            }
             return file;
         }
 
         private File newFile(String key) {
+            if (keyMode == KeyMode.DIGEST) {
+                return new File(cacheDir, Utils.digest(key));
+            }
+            return legacyFile(key);
+        }
+
+        private File legacyFile(String key) {
             return new File(cacheDir, key.hashCode() + "");
         }
 
-        private boolean remove(String key) {
-            File image = get(key);
-            return image.delete();
+        @Override
+        public boolean remove(String key) {
+            File image = newFile(key);
+            if (keyMode == KeyMode.DIGEST) {
+                // 同时移除尚未迁移的旧文件，避免下次读取时又被迁移回来
+                delete(legacyFile(key));
+            }
+            return delete(image);
         }
 
-        private void clear() {
-            lastUsageDates.clear();
-            cacheSize.set(0);
-            File[] files = cacheDir.listFiles();
-            if (files != null) {
-                for (File f : files) {
-                    f.delete();
+        /**
+         * 删除缓存文件并更新 cacheSize 和 cacheCount
+         */
+        private boolean delete(File file) {
+            boolean locked = lockShared();
+            boolean deleted = false;
+            try {
+                forget(file);
+                deleted = file.delete();
+                if (deleted) {
+                    changed(file);
                 }
+                return deleted;
+            } finally {
+                unlockShared(locked, deleted);
             }
         }
 
         /**
-         * 移除旧的文件
+         * 从 LRU 中移除某个文件并更新 cacheSize 和 cacheCount
+         */
+        private void forget(File file) {
+            synchronized (lruEntries) {
+                unindexExpiry(file);
+                Long size = lruEntries.remove(file);
+                if (size != null) {
+                    cacheSize.addAndGet(-size);
+                    cacheCount.addAndGet(-1);
+                }
+            }
+        }
+
+        @Override
+        public void clear() {
+            boolean locked = lockShared();
+            try {
+                synchronized (lruEntries) {
+                    lruEntries.clear();
+                    expiryOf.clear();
+                    expiryQueue.clear();
+                    cacheSize.set(0);
+                    cacheCount.set(0);
+                }
+                File[] files = cacheDir.listFiles();
+                if (files != null) {
+                    for (File f : files) {
+                        f.delete();
+                    }
+                }
+                if (processLock != null) {
+                    processLock.recordAll();
+                }
+            } finally {
+                unlockShared(locked, true);
+            }
+        }
+
+        /**
+         * 超出大小或数量限制时，从队头批量移出最久未使用的文件，直到降到低水位，
+         * 避免每次写入都只腾出刚好够用的空间。调用方需持有 lruEntries 的锁，
+         * 返回的文件在锁外删除。
          *
-         * @return
+         * @param keep 不参与淘汰的文件（刚写入的文件）
+         * @return 需要删除的文件
          */
-        private long removeNext() {
-            if (lastUsageDates.isEmpty()) {
-                return 0;
+        private List<File> trimToLowWater(File keep) {
+            if (cacheSize.get() <= sizeLimit && cacheCount.get() <= countLimit) {
+                return Collections.emptyList();
             }
+            long sizeLowWater = (long) (sizeLimit * CacheStore.EVICT_LOW_WATER);
+            long countLowWater = (long) (countLimit * (double) CacheStore.EVICT_LOW_WATER);
+            List<File> victims = new ArrayList<>();
+            Iterator<Entry<File, Long>> it = lruEntries.entrySet().iterator();
+            while (it.hasNext() && (cacheSize.get() > sizeLowWater || cacheCount.get() > countLowWater)) {
+                Entry<File, Long> eldest = it.next();
+                if (eldest.getKey().equals(keep)) {
+                    continue;
+                }
+                it.remove();
+                unindexExpiry(eldest.getKey());
+                cacheSize.addAndGet(-eldest.getValue());
+                cacheCount.addAndGet(-1);
+                victims.add(eldest.getKey());
+            }
+            return victims;
+        }
 
-            Long oldestUsage = null;
-            File mostLongUsedFile = null;
-            Set<Entry<File, Long>> entries = lastUsageDates.entrySet();
-            synchronized (lastUsageDates) {
-                for (Entry<File, Long> entry : entries) {
-                    if (mostLongUsedFile == null) {
-                        mostLongUsedFile = entry.getKey();
-                        oldestUsage = entry.getValue();
-                    } else {
-                        Long lastValueUsage = entry.getValue();
-                        if (lastValueUsage < oldestUsage) {
-                            oldestUsage = lastValueUsage;
-                            mostLongUsedFile = entry.getKey();
+        /**
+         * 先补全一批未知过期时间的文件，再按过期时间从早到晚删除已过期的文件
+         */
+        @Override
+        public int sweep(int maxCount) {
+            indexUnknownExpiries();
+            long now = System.currentTimeMillis();
+            List<Expiry> expired = new ArrayList<>();
+            synchronized (lruEntries) {
+                for (Expiry expiry : expiryQueue) {
+                    if (expiry.expireAt >= now || expired.size() >= maxCount) {
+                        break;
+                    }
+                    expired.add(expiry);
+                }
+            }
+            int swept = 0;
+            for (Expiry expiry : expired) {
+                if (deleteIfExpired(expiry)) {
+                    swept++;
+                }
+            }
+            return swept;
+        }
+
+        /**
+         * 读取启动时扫描到、尚不知道过期时间的文件的文件头
+         */
+        private void indexUnknownExpiries() {
+            List<File> unknown = new ArrayList<>();
+            synchronized (lruEntries) {
+                if (expiryOf.size() >= lruEntries.size()) {
+                    return;
+                }
+                for (File file : lruEntries.keySet()) {
+                    if (!expiryOf.containsKey(file)) {
+                        unknown.add(file);
+                        if (unknown.size() >= SWEEP_SCAN_BATCH) {
+                            break;
                         }
                     }
                 }
             }
+            for (File file : unknown) {
+                long expireAt = 0;
+                RandomAccessFile RAFile = null;
+                try {
+                    RAFile = new RandomAccessFile(file, "r");
+                    EntryHeader header = EntryHeader.read(RAFile);
+                    // 旧格式的文件视为不过期，仍在读取时判断；损坏的文件视为已过期，由清理删除
+                    expireAt = header == null ? 0 : header == EntryHeader.CORRUPT ? 1 : header.expireAt();
+                } catch (IOException e) {
+                    // 文件已被删除
+                    continue;
+                } finally {
+                    if (RAFile != null) {
+                        try {
+                            RAFile.close();
+                        } catch (IOException e) {
+                            e.printStackTrace();
+                        }
+                    }
+                }
+                synchronized (lruEntries) {
+                    // 读取期间被覆盖或删除的文件以新的记录为准
+                    if (lruEntries.containsKey(file) && !expiryOf.containsKey(file)) {
+                        indexExpiry(file, expireAt);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 删除已过期的文件；选出后被重新写入的文件过期时间已变化，不会被删除
+         */
+        private boolean deleteIfExpired(Expiry expiry) {
+            boolean locked = lockShared();
+            boolean deleted = false;
+            try {
+                synchronized (lruEntries) {
+                    Long expireAt = expiryOf.get(expiry.file);
+                    if (expireAt == null || expireAt != expiry.expireAt) {
+                        return false;
+                    }
+                    forget(expiry.file);
+                }
+                deleted = expiry.file.delete();
+                if (deleted) {
+                    changed(expiry.file);
+                    mStats.recordExpired();
+                }
+                return deleted;
+            } finally {
+                unlockShared(locked, deleted);
+            }
+        }
+
+        /**
+         * 记录文件的过期时间，调用方可以不持有锁
+         */
+        private void indexExpiry(File file, long expireAt) {
+            synchronized (lruEntries) {
+                unindexExpiry(file);
+                expiryOf.put(file, expireAt);
+                if (expireAt != 0) {
+                    expiryQueue.add(new Expiry(file, expireAt));
+                }
+            }
+        }
+
+        private void unindexExpiry(File file) {
+            Long expireAt = expiryOf.remove(file);
+            if (expireAt != null && expireAt != 0) {
+                expiryQueue.remove(new Expiry(file, expireAt));
+            }
+        }
 
-            long fileSize = calculateSize(mostLongUsedFile);
-            if (mostLongUsedFile.delete()) {
-                lastUsageDates.remove(mostLongUsedFile);
+        private void deleteAll(List<File> files) {
+            for (File file : files) {
+                if (file.delete()) {
+                    changed(file);
+                }
             }
-            return fileSize;
         }
 
         private long calculateSize(File file) {
             return file.length();
         }
+
+        /**
+         * 先写入同目录下的临时文件，关闭时回写文件头并重命名为缓存文件
+         */
+        private class EntryOutputStream extends OutputStream {
+            private final String key;
+            private final int saveTime;
+            private final File target;
+            private final File tmp;
+            private final OutputStream out;
+            private final CRC32 crc32 = new CRC32();
+            private long length;
+            private boolean closed;
+
+            EntryOutputStream(String key, int saveTime) throws IOException {
+                this.key = key;
+                this.saveTime = saveTime;
+                target = newFile(key);
+                tmp = newTmpFile(target);
+                out = new BufferedOutputStream(new FileOutputStream(tmp));
+                // 占位，关闭时回写长度和校验值
+                out.write(new EntryHeader(key, (byte) 0, 0, saveTime, 0, 0).encode());
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                crc32.update(b);
+                length++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                crc32.update(b, off, len);
+                length += len;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                out.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                out.close();
+                if (length > Integer.MAX_VALUE) {
+                    tmp.delete();
+                    throw new IOException("cache entry is too large: " + length);
+                }
+                EntryHeader header = new EntryHeader(key, (byte) 0, System.currentTimeMillis(), saveTime,
+                        (int) length, (int) crc32.getValue());
+                RandomAccessFile RAFile = new RandomAccessFile(tmp, "rw");
+                try {
+                    RAFile.write(header.encode());
+                } finally {
+                    RAFile.close();
+                }
+                // 数据已写入独立的临时文件，多进程时只需在锁内重命名
+                boolean locked = lockShared();
+                try {
+                    indexExpiry(target, header.expireAt());
+                    if (!tmp.renameTo(target)) {
+                        tmp.delete();
+                        throw new IOException("can't rename " + tmp.getAbsolutePath());
+                    }
+                    put(target);
+                } finally {
+                    unlockShared(locked, true);
+                }
+            }
+        }
     }
 
     /**
@@ -719,22 +1937,23 @@ public class ACache {
     private static class Utils {
 
         /**
-         * 判断缓存的String数据是否到期
+         * 判断缓存的byte数据是否到期
          *
-         * @param str
+         * @param data
          * @return true：到期了 false：还没有到期
          */
-        private static boolean isDue(String str) {
-            return isDue(str.getBytes());
+        private static boolean isDue(byte[] data) {
+            long expireAt = expireAt(data);
+            return expireAt != 0 && System.currentTimeMillis() > expireAt;
         }
 
         /**
-         * 判断缓存的byte数据是否到期
+         * 获取缓存的byte数据的过期时间
          *
          * @param data
-         * @return true：到期了 false：还没有到期
+         * @return 过期时间，没有时间信息时返回 0
          */
-        private static boolean isDue(byte[] data) {
+        private static long expireAt(byte[] data) {
             String[] strs = getDateInfoFromDate(data);
             if (strs != null && strs.length == 2) {
                 String saveTimeStr = strs[0];
@@ -744,29 +1963,9 @@ public class ACache {
                 }
                 long saveTime = Long.valueOf(saveTimeStr);
                 long deleteAfter = Long.valueOf(strs[1]);
-                return System.currentTimeMillis() > saveTime + deleteAfter * 1000;
+                return saveTime + deleteAfter * 1000;
             }
-            return false;
-        }
-
-        private static String newStringWithDateInfo(int second, String strInfo) {
-            return createDateInfo(second) + strInfo;
-        }
-
-        private static byte[] newByteArrayWithDateInfo(int second, byte[] data2) {
-            byte[] data1 = createDateInfo(second).getBytes();
-            byte[] retdata = new byte[data1.length + data2.length];
-            System.arraycopy(data1, 0, retdata, 0, data1.length);
-            System.arraycopy(data2, 0, retdata, data1.length, data2.length);
-            return retdata;
-        }
-
-        private static String clearDateInfo(String strInfo) {
-            if (strInfo != null && hasDateInfo(strInfo.getBytes())) {
-                strInfo = strInfo.substring(strInfo.indexOf(mSeparator) + 1
-                );
-            }
-            return strInfo;
+            return 0;
         }
 
         private static byte[] clearDateInfo(byte[] data) {
@@ -813,12 +2012,19 @@ public class ACache {
 
         private static final char mSeparator = ' ';
 
-        private static String createDateInfo(int second) {
-            String currentTime = System.currentTimeMillis() + "";
-            while (currentTime.length() < 13) {
-                currentTime = "0" + currentTime;
+        private static String digest(String key) {
+            try {
+                MessageDigest md = MessageDigest.getInstance("SHA-256");
+                byte[] hash = md.digest(key.getBytes(StandardCharsets.UTF_8));
+                StringBuilder sb = new StringBuilder(hash.length * 2);
+                for (byte b : hash) {
+                    sb.append(Character.forDigit((b >> 4) & 0xF, 16))
+                            .append(Character.forDigit(b & 0xF, 16));
+                }
+                return sb.toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
             }
-            return currentTime + "-" + second + mSeparator;
         }
 
         /*
@@ -0,0 +1,225 @@
+package pers.sweven.common.utils.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 紧凑的二进制序列化器
+ * <p>
+ * 基本类型、String、byte[]、List、Set、Map 以 “类型标记 + 数据” 的形式写入，无需反射，体积与开销都远小于
+ * Java 序列化；其他 {@link Serializable} 对象退回到 Java 序列化。读取时不需要指定类型。
+ */
+public class BinaryCacheSerializer implements CacheSerializer {
+    public static final BinaryCacheSerializer INSTANCE = new BinaryCacheSerializer();
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_TRUE = 1;
+    private static final byte TYPE_FALSE = 2;
+    private static final byte TYPE_BYTE = 3;
+    private static final byte TYPE_SHORT = 4;
+    private static final byte TYPE_INT = 5;
+    private static final byte TYPE_LONG = 6;
+    private static final byte TYPE_FLOAT = 7;
+    private static final byte TYPE_DOUBLE = 8;
+    private static final byte TYPE_CHAR = 9;
+    private static final byte TYPE_STRING = 10;
+    private static final byte TYPE_BYTES = 11;
+    private static final byte TYPE_LIST = 12;
+    private static final byte TYPE_SET = 13;
+    private static final byte TYPE_MAP = 14;
+    private static final byte TYPE_SERIALIZABLE = 15;
+
+    @Override
+    public byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        write(out, value);
+        out.flush();
+        return baos.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] data, Type type) throws IOException {
+        return read(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+
+    private void write(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof String) {
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TYPE_INT);
+            writeVarLong(out, zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            writeVarLong(out, zigZag((Long) value));
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TYPE_TRUE : TYPE_FALSE);
+        } else if (value instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(TYPE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Short) {
+            out.writeByte(TYPE_SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(TYPE_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            out.writeByte(TYPE_CHAR);
+            out.writeChar((Character) value);
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            out.writeByte(TYPE_BYTES);
+            writeVarLong(out, bytes.length);
+            out.write(bytes);
+        } else if (value instanceof List || value instanceof Set) {
+            Collection<?> collection = (Collection<?>) value;
+            out.writeByte(value instanceof List ? TYPE_LIST : TYPE_SET);
+            writeVarLong(out, collection.size());
+            for (Object item : collection) {
+                write(out, item);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(TYPE_MAP);
+            writeVarLong(out, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                write(out, entry.getKey());
+                write(out, entry.getValue());
+            }
+        } else if (value instanceof Serializable) {
+            byte[] bytes = JavaCacheSerializer.INSTANCE.serialize(value);
+            out.writeByte(TYPE_SERIALIZABLE);
+            writeVarLong(out, bytes.length);
+            out.write(bytes);
+        } else {
+            throw new IOException("unsupported type: " + value.getClass().getName());
+        }
+    }
+
+    private Object read(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_TRUE:
+                return Boolean.TRUE;
+            case TYPE_FALSE:
+                return Boolean.FALSE;
+            case TYPE_BYTE:
+                return in.readByte();
+            case TYPE_SHORT:
+                return in.readShort();
+            case TYPE_INT:
+                return (int) unZigZag(readVarLong(in));
+            case TYPE_LONG:
+                return unZigZag(readVarLong(in));
+            case TYPE_FLOAT:
+                return in.readFloat();
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_CHAR:
+                return in.readChar();
+            case TYPE_STRING: {
+                byte[] bytes = new byte[readLength(in)];
+                in.readFully(bytes);
+                return new String(bytes, "UTF-8");
+            }
+            case TYPE_BYTES: {
+                byte[] bytes = new byte[readLength(in)];
+                in.readFully(bytes);
+                return bytes;
+            }
+            case TYPE_LIST: {
+                int size = readLength(in);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(read(in));
+                }
+                return list;
+            }
+            case TYPE_SET: {
+                int size = readLength(in);
+                Set<Object> set = new LinkedHashSet<>();
+                for (int i = 0; i < size; i++) {
+                    set.add(read(in));
+                }
+                return set;
+            }
+            case TYPE_MAP: {
+                int size = readLength(in);
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    map.put(read(in), read(in));
+                }
+                return map;
+            }
+            case TYPE_SERIALIZABLE: {
+                byte[] bytes = new byte[readLength(in)];
+                in.readFully(bytes);
+                return JavaCacheSerializer.INSTANCE.deserialize(bytes, null);
+            }
+            default:
+                throw new IOException("unknown type: " + type);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes("UTF-8");
+        out.writeByte(TYPE_STRING);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    private static int readLength(DataInputStream in) throws IOException {
+        long length = readVarLong(in);
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IOException("malformed length: " + length);
+        }
+        return (int) length;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
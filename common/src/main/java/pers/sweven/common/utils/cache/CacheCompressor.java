@@ -0,0 +1,66 @@
+package pers.sweven.common.utils.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * ACache 数据的 Deflate 压缩，文件头中带 {@link EntryHeader#FLAG_DEFLATE} 的数据以此格式保存
+ */
+final class CacheCompressor {
+    /**
+     * 默认的压缩阈值，小于该长度的数据压缩收益很小，直接保存
+     */
+    static final int DEFAULT_THRESHOLD = 1024;
+
+    private CacheCompressor() {
+    }
+
+    /**
+     * @return 压缩后的数据；压缩后没有变小时返回 null
+     */
+    static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            // 输出不小于输入时放弃压缩，缓冲区只需与输入一样大
+            byte[] buffer = new byte[data.length];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    return null;
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            byte[] result = new byte[length];
+            System.arraycopy(buffer, 0, result, 0, length);
+            return result;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] inflate(byte[] data) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("truncated compressed cache entry");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
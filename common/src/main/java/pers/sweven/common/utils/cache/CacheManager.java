@@ -22,10 +22,69 @@ public class CacheManager {
         mACache = ACache.get(context);
     }
 
+    /**
+     * 初始化
+     * @param context
+     * @param multiProcess 是否与其他进程共用缓存目录，共用的各个进程都需要传 true
+     */
+    public static void init(Context context, boolean multiProcess) {
+        mACache = multiProcess ? ACache.getMultiProcess(context, "ACache") : ACache.get(context);
+    }
+
     public static ACache getInStance() {
         return mACache;
     }
 
+    /**
+     * 开启/关闭写回模式，开启后写入不再阻塞调用线程
+     * @param writeBehind
+     */
+    public static void setWriteBehind(boolean writeBehind) {
+        if (writeBehind) {
+            mACache.enableWriteBehind();
+        } else {
+            mACache.disableWriteBehind();
+        }
+    }
+
+    /**
+     * 开启/关闭压缩，接口返回的 JSON 等文本数据压缩后通常只占原来的三分之一左右
+     * @param compression
+     */
+    public static void setCompression(boolean compression) {
+        if (compression) {
+            mACache.enableCompression();
+        } else {
+            mACache.disableCompression();
+        }
+    }
+
+    /**
+     * 开启/关闭后台过期清理
+     * @param sweep
+     */
+    public static void setExpirySweeper(boolean sweep) {
+        if (sweep) {
+            mACache.enableExpirySweeper();
+        } else {
+            mACache.disableExpirySweeper();
+        }
+    }
+
+    /**
+     * 命中率、淘汰数、读写耗时等统计数据
+     */
+    public static CacheStats getStats() {
+        return mACache.getStats();
+    }
+
+    /**
+     * 等待写回模式下尚未写入的数据落盘
+     */
+    public static void flush() {
+        mACache.flush();
+    }
+
     /**
      * 存重要信息
      * @param key
@@ -0,0 +1,31 @@
+package pers.sweven.common.utils.cache;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * ACache 对象序列化器
+ * <p>
+ * 内置 {@link JavaCacheSerializer}（默认，与旧版本兼容）、{@link GsonCacheSerializer} 与
+ * {@link BinaryCacheSerializer}。可通过 {@link ACache#setSerializer(CacheSerializer)} 为整个缓存指定，
+ * 也可以在读写时单独指定；同一个 key 的读写需要使用同一种序列化器。
+ */
+public interface CacheSerializer {
+
+    /**
+     * 序列化
+     *
+     * @param value 需要保存的对象
+     * @return 序列化后的数据
+     */
+    byte[] serialize(Object value) throws IOException;
+
+    /**
+     * 反序列化
+     *
+     * @param data 序列化后的数据
+     * @param type 对象的类型，自描述的格式可以忽略
+     * @return 对象
+     */
+    Object deserialize(byte[] data, Type type) throws IOException;
+}
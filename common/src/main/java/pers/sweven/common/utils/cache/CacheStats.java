@@ -0,0 +1,131 @@
+package pers.sweven.common.utils.cache;
+
+import java.util.Locale;
+
+/**
+ * ACache 的统计数据快照，通过 {@link ACache#getStats()} 获取
+ * <p>
+ * 命中/未命中按 ACache 的读取方法计算（含内存一级缓存的命中），
+ * 读写字节数为序列化后、压缩前的数据长度，耗时只统计访问底层存储的部分，单位：微秒。
+ */
+public final class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long expiredCount;
+    private final long evictionCount;
+    private final long bytesRead;
+    private final long bytesWritten;
+    private final long getCount;
+    private final long getP50;
+    private final long getP99;
+    private final long putCount;
+    private final long putP50;
+    private final long putP99;
+
+    CacheStats(long hitCount, long missCount, long expiredCount, long evictionCount,
+               long bytesRead, long bytesWritten,
+               long getCount, long getP50, long getP99,
+               long putCount, long putP50, long putP99) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.expiredCount = expiredCount;
+        this.evictionCount = evictionCount;
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+        this.getCount = getCount;
+        this.getP50 = getP50;
+        this.getP99 = getP99;
+        this.putCount = putCount;
+        this.putP50 = putP50;
+        this.putP99 = putP99;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return 命中率，没有读取过时返回 0
+     */
+    public double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * @return 因已过期（或已损坏）而删除的数量，含读取时发现的（同时计入未命中）与后台清理的
+     */
+    public long getExpiredCount() {
+        return expiredCount;
+    }
+
+    /**
+     * @return 因超出大小或数量限制而淘汰的数量
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * @return 访问底层存储的读取次数
+     */
+    public long getGetCount() {
+        return getCount;
+    }
+
+    public long getGetLatencyP50() {
+        return getP50;
+    }
+
+    public long getGetLatencyP99() {
+        return getP99;
+    }
+
+    /**
+     * @return 访问底层存储的写入次数
+     */
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public long getPutLatencyP50() {
+        return putP50;
+    }
+
+    public long getPutLatencyP99() {
+        return putP99;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "CacheStats{hit=%d, miss=%d, hitRate=%.3f, expired=%d, evicted=%d, "
+                        + "bytesRead=%d, bytesWritten=%d, get=%d (p50=%dus, p99=%dus), put=%d (p50=%dus, p99=%dus)}",
+                hitCount, missCount, getHitRate(), expiredCount, evictionCount, bytesRead, bytesWritten,
+                getCount, getP50, getP99, putCount, putP50, putP99);
+    }
+
+    /**
+     * 定期接收统计数据，用于导出到自己的监控系统
+     */
+    public interface Listener {
+        /**
+         * 在后台线程中回调
+         *
+         * @param cache 统计数据所属的缓存
+         * @param stats 自开启以来（或上次 {@link ACache#resetStats()} 以来）的累计数据
+         */
+        void onStats(ACache cache, CacheStats stats);
+    }
+}
@@ -0,0 +1,112 @@
+package pers.sweven.common.utils.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * ACache 的底层存储
+ * <p>
+ * 目前有两种实现：{@link ACache.ACacheManager}（一个 key 一个文件）与 {@link JournalStore}（追加日志 + 内存索引）。
+ * 过期信息由存储层负责编码与判断，上层只处理业务数据。
+ */
+interface CacheStore {
+
+    /**
+     * 超出限制时批量淘汰到限制的该比例，避免每次写入都触发淘汰
+     */
+    float EVICT_LOW_WATER = 0.9f;
+
+    /**
+     * 写入数据
+     *
+     * @param key      保存的key
+     * @param value    保存的数据
+     * @param saveTime 保存的时间，单位：秒；-1 表示不过期
+     */
+    void put(String key, byte[] value, int saveTime);
+
+    /**
+     * 读取数据
+     *
+     * @param key 保存的key
+     * @return 数据及其过期时间，不存在或已过期时返回 null
+     */
+    Record get(String key);
+
+    /**
+     * 以流的形式读取数据，读到结尾时校验数据完整性
+     *
+     * @param key 保存的key
+     * @return 输入流，不存在或已过期时返回 null
+     */
+    InputStream openInputStream(String key) throws IOException;
+
+    /**
+     * 以流的形式写入数据，关闭输出流后数据才可见
+     *
+     * @param key      保存的key
+     * @param saveTime 保存的时间，单位：秒；-1 表示不过期
+     */
+    OutputStream openOutputStream(String key, int saveTime) throws IOException;
+
+    /**
+     * 以只读内存映射的形式读取数据，不校验数据完整性
+     *
+     * @param key 保存的key
+     * @return 数据，不存在或已过期时返回 null
+     */
+    ByteBuffer mapReadOnly(String key) throws IOException;
+
+    /**
+     * 获取 key 对应的缓存文件
+     *
+     * @param key 保存的key
+     * @return 缓存文件，不存在或存储不以独立文件保存时返回 null
+     */
+    File file(String key);
+
+    /**
+     * 移除某个key
+     *
+     * @param key 保存的key
+     * @return 是否移除成功
+     */
+    boolean remove(String key);
+
+    /**
+     * 清除所有数据
+     */
+    void clear();
+
+    /**
+     * 把已写入的数据刷到磁盘
+     */
+    void sync();
+
+    /**
+     * 删除一批已过期的数据，由后台清理任务定期调用
+     *
+     * @param maxCount 本次最多删除的数量
+     * @return 删除的数量
+     */
+    int sweep(int maxCount);
+
+    /**
+     * 读取到的数据
+     */
+    final class Record {
+        final byte[] data;
+        /**
+         * 过期时间，0 表示不过期
+         */
+        final long expireAt;
+
+        Record(byte[] data, long expireAt) {
+            this.data = data;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package pers.sweven.common.utils.cache;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * ACache 缓存文件的二进制文件头
+ * <p>
+ * 格式：magic(4) version(1) flags(1) keyLength(2) created(8) ttl(4) length(4) checksum(4) key
+ * <p>
+ * 只需读取文件开头的固定长度即可判断是否过期，不必读入整个文件；
+ * flags 为 {@link #FLAG_DEFLATE} 时数据经过压缩，length 与 checksum 都针对压缩后的数据；
+ * 没有该文件头的旧文件（字符串时间前缀格式）仍按原来的方式读取。
+ */
+final class EntryHeader {
+    static final int MAGIC = 0x41434832; // "ACH2"
+    static final byte VERSION = 2;
+    /**
+     * 固定部分的长度，不含 key
+     */
+    static final int SIZE = 4 + 1 + 1 + 2 + 8 + 4 + 4 + 4;
+    /**
+     * 数据以 Deflate 压缩保存
+     */
+    static final byte FLAG_DEFLATE = 0x01;
+
+    final byte flags;
+    /**
+     * 写入时间，单位：毫秒
+     */
+    final long created;
+    /**
+     * 保存的时间，单位：秒；-1 表示不过期
+     */
+    final int ttl;
+    /**
+     * 数据长度，不含文件头
+     */
+    final int length;
+    /**
+     * 数据的 CRC32
+     */
+    final int checksum;
+    final String key;
+
+    EntryHeader(String key, byte flags, long created, int ttl, int length, int checksum) {
+        this.key = key;
+        this.flags = flags;
+        this.created = created;
+        this.ttl = ttl;
+        this.length = length;
+        this.checksum = checksum;
+    }
+
+    /**
+     * @return 过期时间，0 表示不过期
+     */
+    long expireAt() {
+        return ttl == -1 ? 0 : created + ttl * 1000L;
+    }
+
+    boolean isDue(long now) {
+        long expireAt = expireAt();
+        return expireAt != 0 && now > expireAt;
+    }
+
+    boolean isCompressed() {
+        return (flags & FLAG_DEFLATE) != 0;
+    }
+
+    /**
+     * @return 文件头的总长度，含 key
+     */
+    int totalSize() {
+        return SIZE + key.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    byte[] encode() {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("key is too long: " + keyBytes.length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE + keyBytes.length);
+        buffer.putInt(MAGIC)
+                .put(VERSION)
+                .put(flags)
+                .putShort((short) keyBytes.length)
+                .putLong(created)
+                .putInt(ttl)
+                .putInt(length)
+                .putInt(checksum)
+                .put(keyBytes);
+        return buffer.array();
+    }
+
+    /**
+     * 以 magic 开头、但被截断或内容不一致的文件，读取时视为未命中并删除
+     */
+    static final EntryHeader CORRUPT = new EntryHeader("", (byte) 0, 0, -1, 0, 0);
+
+    /**
+     * 从文件当前位置读取文件头，成功时文件位置停在数据开头
+     *
+     * @return 文件头；不是该格式的文件时返回 null（文件位置不确定，需要重新 seek）；
+     * 是该格式但已损坏时返回 {@link #CORRUPT}
+     */
+    static EntryHeader read(RandomAccessFile file) throws IOException {
+        return read(file, file.length() - file.getFilePointer());
+    }
+
+    /**
+     * 从输入的当前位置读取文件头
+     *
+     * @param available 当前位置之后剩余的字节数
+     * @return 文件头；不是该格式的文件时返回 null；是该格式但已损坏时返回 {@link #CORRUPT}
+     */
+    static EntryHeader read(DataInput file, long available) throws IOException {
+        // 旧格式以时间数字开头，不会以 magic 开头
+        if (available < 4 || file.readInt() != MAGIC) {
+            return null;
+        }
+        if (available < SIZE) {
+            return CORRUPT;
+        }
+        byte[] fixed = new byte[SIZE - 4];
+        file.readFully(fixed);
+        ByteBuffer buffer = ByteBuffer.wrap(fixed);
+        if (buffer.get() != VERSION) {
+            return CORRUPT;
+        }
+        byte flags = buffer.get();
+        int keyLength = buffer.getShort() & 0xFFFF;
+        long created = buffer.getLong();
+        int ttl = buffer.getInt();
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length < 0 || available - SIZE != keyLength + (long) length) {
+            return CORRUPT;
+        }
+        byte[] keyBytes = new byte[keyLength];
+        file.readFully(keyBytes);
+        return new EntryHeader(new String(keyBytes, StandardCharsets.UTF_8), flags, created, ttl, length, checksum);
+    }
+
+    static int crc(byte[] data) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(data, 0, data.length);
+        return (int) crc32.getValue();
+    }
+}
@@ -0,0 +1,99 @@
+package pers.sweven.common.utils.cache;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+
+/**
+ * 只读取缓存数据部分的输入流，读到结尾时校验 CRC32，不一致时抛出 IOException
+ */
+final class EntryInputStream extends FilterInputStream {
+    private final int checksum;
+    private final CRC32 crc32 = new CRC32();
+    private long remaining;
+
+    /**
+     * @param in       已定位到数据开头的输入流
+     * @param length   数据长度
+     * @param checksum 数据的 CRC32
+     */
+    EntryInputStream(InputStream in, long length, int checksum) {
+        super(in);
+        this.remaining = length;
+        this.checksum = checksum;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining <= 0) {
+            return -1;
+        }
+        int b = in.read();
+        if (b == -1) {
+            throw new IOException("unexpected end of cache entry");
+        }
+        crc32.update(b);
+        consume(1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (remaining <= 0) {
+            return -1;
+        }
+        int count = in.read(b, off, (int) Math.min(len, remaining));
+        if (count == -1) {
+            throw new IOException("unexpected end of cache entry");
+        }
+        crc32.update(b, off, count);
+        consume(count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // 跳过的数据同样需要参与校验
+        byte[] buffer = new byte[(int) Math.min(8192, Math.max(n, 1))];
+        long skipped = 0;
+        while (skipped < n) {
+            int count = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (count == -1) {
+                break;
+            }
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(in.available(), remaining);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void consume(int count) throws IOException {
+        remaining -= count;
+        if (remaining == 0 && (int) crc32.getValue() != checksum) {
+            throw new IOException("cache entry checksum mismatch");
+        }
+    }
+
+    /**
+     * 跳过输入流开头的 count 个字节
+     */
+    static void skipFully(InputStream in, long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                throw new IOException("unexpected end of cache entry");
+            }
+            count -= skipped;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package pers.sweven.common.utils.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+import pers.sweven.common.repository.converter.GsonConverterBodyFactory;
+
+/**
+ * 基于 Gson 的序列化器，以 JSON 保存，类的字段增减不影响读取；读取时需要指定类型
+ */
+public class GsonCacheSerializer implements CacheSerializer {
+    private final Gson gson;
+
+    /**
+     * 使用与网络请求相同配置的 Gson
+     */
+    public static GsonCacheSerializer create() {
+        return new GsonCacheSerializer(GsonConverterBodyFactory.getDefaultGson());
+    }
+
+    public static GsonCacheSerializer create(Gson gson) {
+        return new GsonCacheSerializer(gson);
+    }
+
+    private GsonCacheSerializer(Gson gson) {
+        if (gson == null) {
+            throw new NullPointerException("Gson == null");
+        }
+        this.gson = gson;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        return gson.toJson(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Object deserialize(byte[] data, Type type) throws IOException {
+        try {
+            return gson.fromJson(new String(data, StandardCharsets.UTF_8), type);
+        } catch (JsonParseException e) {
+            throw new IOException(e);
+        }
+    }
+}
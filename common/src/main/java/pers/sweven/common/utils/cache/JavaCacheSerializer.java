@@ -0,0 +1,39 @@
+package pers.sweven.common.utils.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * 基于 Java 序列化的序列化器，对象需实现 {@link java.io.Serializable}
+ */
+public class JavaCacheSerializer implements CacheSerializer {
+    public static final JavaCacheSerializer INSTANCE = new JavaCacheSerializer();
+
+    @Override
+    public byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        try {
+            oos.writeObject(value);
+        } finally {
+            oos.close();
+        }
+        return baos.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] data, Type type) throws IOException {
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data));
+        try {
+            return ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        } finally {
+            ois.close();
+        }
+    }
+}
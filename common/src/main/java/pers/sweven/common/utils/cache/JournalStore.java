@@ -0,0 +1,648 @@
+package pers.sweven.common.utils.cache;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * 追加日志形式的 ACache 存储
+ * <p>
+ * 所有写入/删除以记录的形式追加到分段日志文件（journal.N）末尾，内存中只保留
+ * key → 分段/偏移/长度/过期时间 的索引。启动时只需顺序回放日志头部即可重建索引，
+ * 无需遍历整个缓存目录；失效数据达到一定比例后在后台线程中整理（compaction）。
+ * <p>
+ * 记录格式：magic(4) keyLength(4) valueLength(4, -1 表示删除) expireAt(8) crc(4) key value
+ */
+final class JournalStore implements CacheStore {
+    private static final String SEGMENT_PREFIX = "journal.";
+    private static final int RECORD_MAGIC = 0x4A524E31; // "JRN1"
+    private static final int RECORD_HEADER_SIZE = 4 + 4 + 4 + 8 + 4;
+    private static final int TOMBSTONE = -1;
+    private static final long SEGMENT_MAX_SIZE = 4 * 1024 * 1024; // 4 mb
+    private static final long COMPACT_MIN_GARBAGE = 1024 * 1024; // 1 mb
+    private static final float COMPACT_GARBAGE_RATIO = 0.5f;
+
+    private final File dir;
+    private final StatsRecorder stats;
+    private final long sizeLimit;
+    private final int countLimit;
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(16, 0.75f, true);
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private final ExecutorService worker;
+    private Segment active;
+    private long liveSize;
+    private long totalSize;
+    private long garbageSize;
+    private boolean compacting;
+
+    JournalStore(File dir, long sizeLimit, int countLimit, StatsRecorder stats) {
+        this.dir = dir;
+        this.stats = stats;
+        this.sizeLimit = sizeLimit;
+        this.countLimit = countLimit;
+        worker = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "ACache-journal");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        worker.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    replay();
+                } finally {
+                    loaded.countDown();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void put(String key, byte[] value, int saveTime) {
+        awaitLoaded();
+        long expireAt = saveTime == -1 ? 0 : System.currentTimeMillis() + saveTime * 1000L;
+        synchronized (this) {
+            try {
+                Entry entry = append(key.getBytes(StandardCharsets.UTF_8), value, expireAt);
+                Entry old = index.put(key, entry);
+                if (old != null) {
+                    discard(old);
+                }
+                liveSize += entry.length;
+                trimToLimits();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        maybeCompact();
+    }
+
+    @Override
+    public Record get(String key) {
+        awaitLoaded();
+        synchronized (this) {
+            Entry entry = index.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isDue(System.currentTimeMillis())) {
+                stats.recordExpired();
+                removeLocked(key);
+                return null;
+            }
+            try {
+                byte[] data = read(entry);
+                if (data == null) {
+                    stats.recordExpired();
+                    removeLocked(key);
+                    return null;
+                }
+                return new Record(data, entry.expireAt);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public InputStream openInputStream(String key) throws IOException {
+        awaitLoaded();
+        synchronized (this) {
+            Entry entry = liveEntry(key);
+            if (entry == null) {
+                return null;
+            }
+            // 使用独立的文件描述符读取，分段文件在整理时被删除也不影响已打开的流
+            FileInputStream in = new FileInputStream(segments.get(entry.segment).file);
+            try {
+                EntryInputStream.skipFully(in, entry.offset);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+            return new EntryInputStream(new BufferedInputStream(in), entry.length, entry.crc);
+        }
+    }
+
+    /**
+     * 日志记录需要一次性连续追加，因此先在内存中缓冲，关闭时写入
+     */
+    @Override
+    public OutputStream openOutputStream(final String key, final int saveTime) {
+        return new ByteArrayOutputStream() {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                super.close();
+                if (!closed) {
+                    closed = true;
+                    put(key, toByteArray(), saveTime);
+                }
+            }
+        };
+    }
+
+    @Override
+    public ByteBuffer mapReadOnly(String key) throws IOException {
+        awaitLoaded();
+        synchronized (this) {
+            Entry entry = liveEntry(key);
+            if (entry == null) {
+                return null;
+            }
+            RandomAccessFile raf = new RandomAccessFile(segments.get(entry.segment).file, "r");
+            try {
+                return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, entry.offset, entry.length);
+            } finally {
+                raf.close();
+            }
+        }
+    }
+
+    @Override
+    public File file(String key) {
+        return null;
+    }
+
+    /**
+     * 获取未过期的索引项，已过期的会被删除；调用方需持有锁
+     */
+    private Entry liveEntry(String key) {
+        Entry entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isDue(System.currentTimeMillis()) || !segments.containsKey(entry.segment)) {
+            stats.recordExpired();
+            removeLocked(key);
+            return null;
+        }
+        return entry;
+    }
+
+    @Override
+    public boolean remove(String key) {
+        awaitLoaded();
+        boolean removed;
+        synchronized (this) {
+            removed = removeLocked(key);
+        }
+        maybeCompact();
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        awaitLoaded();
+        synchronized (this) {
+            for (Segment segment : segments.values()) {
+                segment.close();
+                segment.file.delete();
+            }
+            int nextId = active == null ? 0 : active.id + 1;
+            segments.clear();
+            index.clear();
+            liveSize = 0;
+            totalSize = 0;
+            garbageSize = 0;
+            active = null;
+            try {
+                active = openSegment(nextId);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 索引在内存中，直接遍历找出已过期的数据，删除时追加删除记录
+     */
+    @Override
+    public int sweep(int maxCount) {
+        if (loaded.getCount() > 0) {
+            // 还在回放日志，回放时已跳过过期的数据
+            return 0;
+        }
+        int swept = 0;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            List<String> expired = new ArrayList<>();
+            // 遍历不会改变访问顺序
+            for (Map.Entry<String, Entry> item : index.entrySet()) {
+                if (expired.size() >= maxCount) {
+                    break;
+                }
+                if (item.getValue().isDue(now)) {
+                    expired.add(item.getKey());
+                }
+            }
+            for (String key : expired) {
+                if (removeLocked(key)) {
+                    stats.recordExpired();
+                    swept++;
+                }
+            }
+        }
+        if (swept > 0) {
+            maybeCompact();
+        }
+        return swept;
+    }
+
+    @Override
+    public void sync() {
+        awaitLoaded();
+        synchronized (this) {
+            if (active != null) {
+                active.sync();
+            }
+        }
+    }
+
+    // =======================================
+    // ============== 日志读写 ==============
+    // =======================================
+
+    private Entry append(byte[] keyBytes, byte[] value, long expireAt) throws IOException {
+        int valueLength = value == null ? TOMBSTONE : value.length;
+        int recordLength = RECORD_HEADER_SIZE + keyBytes.length + Math.max(valueLength, 0);
+        if (active == null || (active.size > 0 && active.size + recordLength > SEGMENT_MAX_SIZE)) {
+            if (active != null) {
+                // 封存前落盘，之后 sync 只需处理当前分段
+                active.sync();
+            }
+            active = openSegment(active == null ? 0 : active.id + 1);
+        }
+        int crc = value == null ? 0 : crc(value);
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE + keyBytes.length);
+        header.putInt(RECORD_MAGIC)
+                .putInt(keyBytes.length)
+                .putInt(valueLength)
+                .putLong(expireAt)
+                .putInt(crc)
+                .put(keyBytes);
+
+        Segment segment = active;
+        long offset = segment.size;
+        segment.raf.seek(offset);
+        segment.raf.write(header.array());
+        if (value != null) {
+            segment.raf.write(value);
+        }
+        segment.size += recordLength;
+        totalSize += recordLength;
+        return new Entry(segment.id, offset + header.capacity(), valueLength, expireAt, crc, recordLength);
+    }
+
+    private byte[] read(Entry entry) throws IOException {
+        Segment segment = segments.get(entry.segment);
+        if (segment == null) {
+            return null;
+        }
+        byte[] data = new byte[entry.length];
+        segment.raf.seek(entry.offset);
+        segment.raf.readFully(data);
+        if (crc(data) != entry.crc) {
+            return null;
+        }
+        return data;
+    }
+
+    private boolean removeLocked(String key) {
+        Entry old = index.remove(key);
+        if (old == null) {
+            return false;
+        }
+        discard(old);
+        try {
+            Entry tombstone = append(key.getBytes(StandardCharsets.UTF_8), null, 0);
+            addGarbage(tombstone.segment, tombstone.recordLength);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return true;
+    }
+
+    private void discard(Entry entry) {
+        liveSize -= entry.length;
+        addGarbage(entry.segment, entry.recordLength);
+    }
+
+    private void addGarbage(int segmentId, long size) {
+        Segment segment = segments.get(segmentId);
+        if (segment != null) {
+            segment.garbage += size;
+            garbageSize += size;
+        }
+    }
+
+    /**
+     * 超出大小或数量限制时，按访问顺序淘汰最久未使用的数据，直到降到低水位
+     */
+    private void trimToLimits() {
+        if (liveSize <= sizeLimit && index.size() <= countLimit) {
+            return;
+        }
+        long sizeLowWater = (long) (sizeLimit * EVICT_LOW_WATER);
+        long countLowWater = (long) (countLimit * (double) EVICT_LOW_WATER);
+        int evicted = 0;
+        while ((liveSize > sizeLowWater || index.size() > countLowWater) && !index.isEmpty()) {
+            String eldest = index.keySet().iterator().next();
+            removeLocked(eldest);
+            evicted++;
+        }
+        stats.recordEvictions(evicted);
+    }
+
+    private Segment openSegment(int id) throws IOException {
+        Segment segment = new Segment(id, new File(dir, SEGMENT_PREFIX + id));
+        segments.put(id, segment);
+        return segment;
+    }
+
+    // =======================================
+    // ============== 启动回放 ==============
+    // =======================================
+
+    private synchronized void replay() {
+        File[] files = dir.listFiles();
+        TreeMap<Integer, File> ordered = new TreeMap<>();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (!name.startsWith(SEGMENT_PREFIX)) {
+                    continue;
+                }
+                try {
+                    ordered.put(Integer.parseInt(name.substring(SEGMENT_PREFIX.length())), file);
+                } catch (NumberFormatException ignore) {
+                }
+            }
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Integer, File> item : ordered.entrySet()) {
+            try {
+                Segment segment = openSegment(item.getKey());
+                replaySegment(segment, now);
+                active = segment;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        try {
+            if (active == null || active.size >= SEGMENT_MAX_SIZE) {
+                active = openSegment(active == null ? 0 : active.id + 1);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        trimToLimits();
+    }
+
+    /**
+     * 顺序读取分段中每条记录的头部与 key，跳过 value；遇到不完整的记录时截断分段
+     */
+    private void replaySegment(Segment segment, long now) throws IOException {
+        long length = segment.file.length();
+        long position = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segment.file)));
+        try {
+            while (position + RECORD_HEADER_SIZE <= length) {
+                if (in.readInt() != RECORD_MAGIC) {
+                    break;
+                }
+                int keyLength = in.readInt();
+                int valueLength = in.readInt();
+                long expireAt = in.readLong();
+                int crc = in.readInt();
+                // 损坏的长度可能接近 Integer.MAX_VALUE，按 long 计算，分配 key 之前先确认没有超出分段
+                long recordLength = RECORD_HEADER_SIZE + (long) keyLength + Math.max(valueLength, 0);
+                if (keyLength < 0 || valueLength < TOMBSTONE
+                        || keyLength > length - position - RECORD_HEADER_SIZE
+                        || recordLength > Integer.MAX_VALUE || position + recordLength > length) {
+                    break;
+                }
+                byte[] keyBytes = new byte[keyLength];
+                in.readFully(keyBytes);
+                skipFully(in, Math.max(valueLength, 0));
+
+                String key = new String(keyBytes, StandardCharsets.UTF_8);
+                Entry old = index.remove(key);
+                if (old != null) {
+                    discard(old);
+                }
+                long offset = position + RECORD_HEADER_SIZE + keyLength;
+                segment.size = position + recordLength;
+                totalSize += recordLength;
+                if (valueLength == TOMBSTONE || (expireAt != 0 && expireAt <= now)) {
+                    segment.garbage += recordLength;
+                    garbageSize += recordLength;
+                } else {
+                    index.put(key, new Entry(segment.id, offset, valueLength, expireAt, crc, (int) recordLength));
+                    liveSize += valueLength;
+                }
+                position += recordLength;
+            }
+        } catch (EOFException ignore) {
+        } finally {
+            in.close();
+        }
+        if (segment.size < length) {
+            segment.raf.setLength(segment.size);
+        }
+    }
+
+    private static void skipFully(DataInputStream in, long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                throw new EOFException();
+            }
+            count -= skipped;
+        }
+    }
+
+    // =======================================
+    // ============== 后台整理 ==============
+    // =======================================
+
+    private void maybeCompact() {
+        synchronized (this) {
+            if (compacting || garbageSize < COMPACT_MIN_GARBAGE
+                    || garbageSize < totalSize * COMPACT_GARBAGE_RATIO) {
+                return;
+            }
+            compacting = true;
+        }
+        worker.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    compact();
+                } finally {
+                    synchronized (JournalStore.this) {
+                        compacting = false;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 按分段编号从小到大，把已封存分段中仍然有效的记录重新追加到当前分段，然后删除旧分段。
+     * 由于更早的分段总是先被删除，丢弃其中的删除记录是安全的。
+     * 每次只在锁内处理一个分段，避免长时间阻塞读写。
+     */
+    private void compact() {
+        List<Integer> sealed;
+        synchronized (this) {
+            sealed = new ArrayList<>(segments.keySet());
+        }
+        for (Integer id : sealed) {
+            synchronized (this) {
+                Segment segment = segments.get(id);
+                if (segment == null || segment == active) {
+                    break;
+                }
+                try {
+                    compactSegment(segment);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void compactSegment(Segment segment) throws IOException {
+        for (Iterator<Map.Entry<String, Entry>> it = index.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Entry> item = it.next();
+            Entry entry = item.getValue();
+            if (entry.segment != segment.id) {
+                continue;
+            }
+            byte[] data = read(entry);
+            if (data == null) {
+                it.remove();
+                liveSize -= entry.length;
+                continue;
+            }
+            Entry moved = append(item.getKey().getBytes(StandardCharsets.UTF_8), data, entry.expireAt);
+            // setValue 不会改变访问顺序
+            item.setValue(moved);
+        }
+        // 移出的记录落盘后才能删除旧分段，否则此时崩溃会丢失仍然有效的数据
+        active.sync();
+        segments.remove(segment.id);
+        segment.close();
+        segment.file.delete();
+        totalSize -= segment.size;
+        garbageSize -= segment.garbage;
+    }
+
+    private void awaitLoaded() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                loaded.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int crc(byte[] data) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(data, 0, data.length);
+        return (int) crc32.getValue();
+    }
+
+    /**
+     * 索引项：所在分段、value 在分段中的偏移与长度、过期时间
+     */
+    private static final class Entry {
+        final int segment;
+        final long offset;
+        final int length;
+        final long expireAt;
+        final int crc;
+        final int recordLength;
+
+        Entry(int segment, long offset, int length, long expireAt, int crc, int recordLength) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.expireAt = expireAt;
+            this.crc = crc;
+            this.recordLength = recordLength;
+        }
+
+        boolean isDue(long now) {
+            return expireAt != 0 && now > expireAt;
+        }
+    }
+
+    private static final class Segment {
+        final int id;
+        final File file;
+        final RandomAccessFile raf;
+        long size;
+        long garbage;
+
+        Segment(int id, File file) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.raf = new RandomAccessFile(file, "rw");
+        }
+
+        void sync() {
+            try {
+                raf.getFD().sync();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        void close() {
+            try {
+                raf.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
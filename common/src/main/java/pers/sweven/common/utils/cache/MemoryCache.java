@@ -0,0 +1,150 @@
+package pers.sweven.common.utils.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ACache 的内存一级缓存
+ * <p>
+ * 保存解码后的数据（String、byte[]、反序列化后的对象），按权重（约等于占用字节数）淘汰最久未使用的数据，
+ * 过期时间与磁盘上的 saveTime 保持一致。
+ */
+final class MemoryCache {
+    private final long maxWeight;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private long weight;
+    /**
+     * 每次写入或失效时递增，用于丢弃读盘期间已被修改的数据
+     */
+    private long generation;
+
+    MemoryCache(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * 读取指定类型的数据
+     *
+     * @return 数据，不存在、已过期或类型不一致时返回 null
+     */
+    <T> T get(String key, Class<T> type) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.isDue(System.currentTimeMillis())) {
+                removeLocked(key);
+                entry = null;
+            }
+            if (entry != null && type.isInstance(entry.value)) {
+                hitCount.incrementAndGet();
+                return type.cast(entry.value);
+            }
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 写入数据
+     *
+     * @param expireAt 过期时间，0 表示不过期
+     * @param weight   数据的权重，超过最大权重的数据不会被缓存
+     */
+    synchronized void put(String key, Object value, long expireAt, long weight) {
+        generation++;
+        putLocked(key, value, expireAt, weight);
+    }
+
+    /**
+     * 读盘前获取，读盘后配合 {@link #fill} 使用
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * 把从磁盘读取的数据放入缓存；读盘期间有写入或失效时放弃，避免旧数据覆盖新数据
+     */
+    synchronized void fill(String key, Object value, long expireAt, long weight, long generation) {
+        if (this.generation == generation) {
+            putLocked(key, value, expireAt, weight);
+        }
+    }
+
+    /**
+     * 使某个 key 失效，磁盘数据被修改或删除时调用
+     */
+    synchronized void invalidate(String key) {
+        generation++;
+        removeLocked(key);
+    }
+
+    synchronized void clear() {
+        generation++;
+        entries.clear();
+        weight = 0;
+    }
+
+    long getHitCount() {
+        return hitCount.get();
+    }
+
+    long getMissCount() {
+        return missCount.get();
+    }
+
+    private void putLocked(String key, Object value, long expireAt, long weight) {
+        removeLocked(key);
+        if (value == null || weight > maxWeight) {
+            return;
+        }
+        entries.put(key, new Entry(value, expireAt, weight));
+        this.weight += weight;
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (this.weight > maxWeight && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            this.weight -= eldest.weight;
+        }
+    }
+
+    private void removeLocked(String key) {
+        Entry old = entries.remove(key);
+        if (old != null) {
+            weight -= old.weight;
+        }
+    }
+
+    /**
+     * 估算 String 占用的字节数
+     */
+    static long weightOf(String value) {
+        return 40 + 2L * value.length();
+    }
+
+    /**
+     * 估算 byte[] 占用的字节数
+     */
+    static long weightOf(byte[] value) {
+        return 16 + value.length;
+    }
+
+    private static final class Entry {
+        final Object value;
+        final long expireAt;
+        final long weight;
+
+        Entry(Object value, long expireAt, long weight) {
+            this.value = value;
+            this.expireAt = expireAt;
+            this.weight = weight;
+        }
+
+        boolean isDue(long now) {
+            return expireAt != 0 && now > expireAt;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package pers.sweven.common.utils.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 缓存目录的跨进程锁
+ * <p>
+ * 锁文件放在缓存目录旁边（{@code <目录名>.lock}），不参与缓存的扫描与清理。
+ * 文件头保存修改计数、变更记录的重置次数与结束位置，之后是以换行分隔的变更记录（被修改的文件名）。
+ * 每个进程修改目录后把改过的文件名追加到记录中并把计数加一，其他进程拿到锁时只需读取新增的记录，
+ * 逐个更新这些文件，不必重新扫描整个目录；记录超过 {@link #MAX_LOG_SIZE} 或无法逐个记录时清空，
+ * 其他进程发现重置次数变化后再整体重新扫描。
+ * <p>
+ * 同一进程内的多个线程先在 {@link ReentrantLock} 上排队，再由持有者获取文件锁，
+ * 因为同一个 JVM 对同一文件重复加锁会抛出 OverlappingFileLockException。
+ */
+final class ProcessLock {
+    /**
+     * 修改计数(8) 重置次数(8) 变更记录的结束位置(8)
+     */
+    private static final int HEADER_SIZE = 24;
+    private static final int MAX_LOG_SIZE = 64 * 1024;
+
+    private final File file;
+    private final ReentrantLock threadLock = new ReentrantLock();
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    /**
+     * 本次持有锁期间修改过的文件名
+     */
+    private final Set<String> changed = new LinkedHashSet<>();
+    private RandomAccessFile raf;
+    private FileLock lock;
+    private long generation;
+    private long epoch;
+    private long end;
+    private boolean dirty;
+    private boolean resetLog;
+    /**
+     * 本进程最近一次与锁文件同步时的状态，-1 表示还未同步过
+     */
+    private long seenGeneration = -1;
+    private long seenEpoch = -1;
+    private long seenEnd;
+
+    ProcessLock(File cacheDir) {
+        this.file = lockFile(cacheDir);
+    }
+
+    /**
+     * 获取锁，可重入；只有最外层会获取文件锁
+     *
+     * @return 上次同步之后其他进程修改过的文件名，没有修改时为空列表；
+     * 第一次加锁或变更记录已被清空、无法得知修改了哪些文件时返回 null，调用方需重新扫描目录
+     */
+    List<String> lock() throws IOException {
+        threadLock.lock();
+        if (threadLock.getHoldCount() > 1) {
+            return Collections.emptyList();
+        }
+        try {
+            if (raf == null) {
+                raf = new RandomAccessFile(file, "rw");
+            }
+            FileChannel channel = raf.getChannel();
+            lock = channel.lock();
+            readHeader(channel);
+            List<String> changes;
+            if (generation == seenGeneration) {
+                changes = Collections.emptyList();
+            } else if (epoch != seenEpoch || end < seenEnd) {
+                changes = null;
+            } else {
+                changes = readChanges(channel, seenEnd, end);
+            }
+            seenGeneration = generation;
+            seenEpoch = epoch;
+            seenEnd = end;
+            return changes;
+        } catch (IOException e) {
+            release();
+            threadLock.unlock();
+            throw e;
+        } catch (RuntimeException e) {
+            release();
+            threadLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * 记录持有锁期间修改（写入或删除）的文件，未持有锁时忽略
+     */
+    void record(String name) {
+        if (threadLock.isHeldByCurrentThread() && lock != null) {
+            changed.add(name);
+            dirty = true;
+        }
+    }
+
+    /**
+     * 记录无法逐个列出的修改（如清空目录），释放锁时清空变更记录，其他进程将重新扫描
+     */
+    void recordAll() {
+        if (threadLock.isHeldByCurrentThread() && lock != null) {
+            resetLog = true;
+            dirty = true;
+        }
+    }
+
+    /**
+     * 释放锁
+     *
+     * @param modified 持有锁期间是否修改了缓存目录，最外层释放时只要有修改计数就加一
+     */
+    void unlock(boolean modified) {
+        try {
+            dirty |= modified;
+            if (threadLock.getHoldCount() == 1) {
+                if (dirty && lock != null) {
+                    try {
+                        writeChanges(raf.getChannel());
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+                dirty = false;
+                resetLog = false;
+                changed.clear();
+                release();
+            }
+        } finally {
+            threadLock.unlock();
+        }
+    }
+
+    private void readHeader(FileChannel channel) throws IOException {
+        header.clear();
+        int read = channel.read(header, 0);
+        if (read == HEADER_SIZE) {
+            generation = header.getLong(0);
+            epoch = header.getLong(8);
+            end = header.getLong(16);
+        } else {
+            // 新建的锁文件
+            generation = 0;
+            epoch = 0;
+            end = HEADER_SIZE;
+        }
+    }
+
+    private static List<String> readChanges(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate((int) (to - from));
+        while (data.hasRemaining()) {
+            if (channel.read(data, from + data.position()) < 0) {
+                break;
+            }
+        }
+        List<String> names = new ArrayList<>();
+        byte[] bytes = data.array();
+        int start = 0;
+        for (int i = 0; i < data.position(); i++) {
+            if (bytes[i] == '\n') {
+                if (i > start) {
+                    names.add(new String(bytes, start, i - start, StandardCharsets.UTF_8));
+                }
+                start = i + 1;
+            }
+        }
+        return names;
+    }
+
+    /**
+     * 追加本次的变更记录，再写入文件头；进程在两步之间退出时，未写入文件头的记录会被下次写入覆盖
+     */
+    private void writeChanges(FileChannel channel) throws IOException {
+        generation++;
+        if (resetLog || end - HEADER_SIZE > MAX_LOG_SIZE) {
+            epoch++;
+            end = HEADER_SIZE;
+        } else if (!changed.isEmpty()) {
+            StringBuilder builder = new StringBuilder();
+            for (String name : changed) {
+                builder.append(name).append('\n');
+            }
+            ByteBuffer data = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+            while (data.hasRemaining()) {
+                end += channel.write(data, end);
+            }
+        }
+        header.clear();
+        header.putLong(0, generation).putLong(8, epoch).putLong(16, end);
+        channel.write(header, 0);
+        if (channel.size() > end) {
+            channel.truncate(end);
+        }
+        seenGeneration = generation;
+        seenEpoch = epoch;
+        seenEnd = end;
+    }
+
+    private void release() {
+        if (lock != null) {
+            try {
+                lock.release();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            lock = null;
+        }
+    }
+
+    /**
+     * 独占缓存目录直到进程结束，其他进程已占用时返回 null
+     */
+    static FileLock tryLockForever(File cacheDir) throws IOException {
+        // 不关闭文件，锁随进程结束释放
+        RandomAccessFile raf = new RandomAccessFile(lockFile(cacheDir), "rw");
+        FileLock lock = raf.getChannel().tryLock();
+        if (lock == null) {
+            raf.close();
+        }
+        return lock;
+    }
+
+    private static File lockFile(File cacheDir) {
+        return new File(cacheDir.getParentFile(), cacheDir.getName() + ".lock");
+    }
+}
@@ -0,0 +1,142 @@
+package pers.sweven.common.utils.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ACache 统计数据的记录，只使用原子计数，开销为每次操作几次原子自增，可以在正式环境中一直开启
+ */
+final class StatsRecorder {
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final Histogram getLatency = new Histogram();
+    private final Histogram putLatency = new Histogram();
+
+    void recordHit() {
+        hitCount.incrementAndGet();
+    }
+
+    void recordExpired() {
+        expiredCount.incrementAndGet();
+    }
+
+    void recordEvictions(int count) {
+        if (count > 0) {
+            evictionCount.addAndGet(count);
+        }
+    }
+
+    /**
+     * 记录一次底层存储的读取；内存缓存未命中后都会读取底层存储，未命中数只在这里统计
+     *
+     * @param length 读到的数据长度，未命中时为 -1
+     */
+    void recordGet(long startNanos, int length) {
+        getLatency.record(System.nanoTime() - startNanos);
+        if (length >= 0) {
+            hitCount.incrementAndGet();
+            bytesRead.addAndGet(length);
+        } else {
+            missCount.incrementAndGet();
+        }
+    }
+
+    void recordPut(long startNanos, int length) {
+        putLatency.record(System.nanoTime() - startNanos);
+        bytesWritten.addAndGet(length);
+    }
+
+    CacheStats snapshot() {
+        return new CacheStats(hitCount.get(), missCount.get(), expiredCount.get(), evictionCount.get(),
+                bytesRead.get(), bytesWritten.get(),
+                getLatency.count(), getLatency.percentileMicros(0.5), getLatency.percentileMicros(0.99),
+                putLatency.count(), putLatency.percentileMicros(0.5), putLatency.percentileMicros(0.99));
+    }
+
+    void reset() {
+        hitCount.set(0);
+        missCount.set(0);
+        expiredCount.set(0);
+        evictionCount.set(0);
+        bytesRead.set(0);
+        bytesWritten.set(0);
+        getLatency.reset();
+        putLatency.reset();
+    }
+
+    /**
+     * 对数分桶的耗时直方图：每个 2 的幂区间再均分为 {@link #SUB_BUCKETS} 个桶，相对误差不超过 25%
+     */
+    static final class Histogram {
+        private static final int SUB_BITS = 2;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+
+        void record(long nanos) {
+            buckets.incrementAndGet(indexOf(Math.max(nanos, 1)));
+        }
+
+        long count() {
+            long count = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                count += buckets.get(i);
+            }
+            return count;
+        }
+
+        /**
+         * @return 百分位数，单位：微秒；没有数据时返回 0
+         */
+        long percentileMicros(double percentile) {
+            long[] counts = new long[buckets.length()];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBound(i) / 1000;
+                }
+            }
+            return upperBound(counts.length - 1) / 1000;
+        }
+
+        void reset() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+        }
+
+        private static int indexOf(long value) {
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            if (exponent < SUB_BITS) {
+                return (int) value;
+            }
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return exponent * SUB_BUCKETS + sub;
+        }
+
+        /**
+         * @return 第 index 个桶的上界（不含），单位：纳秒
+         */
+        private static long upperBound(int index) {
+            int exponent = index / SUB_BUCKETS;
+            int sub = index % SUB_BUCKETS;
+            if (exponent < SUB_BITS) {
+                return index + 1;
+            }
+            return (long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS);
+        }
+    }
+}
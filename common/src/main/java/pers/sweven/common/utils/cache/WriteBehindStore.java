@@ -0,0 +1,253 @@
+package pers.sweven.common.utils.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 写回模式的 ACache 存储
+ * <p>
+ * put/remove 只记录到内存队列中立即返回，由单个后台线程批量写入底层存储，每批写完后只做一次 sync。
+ * 同一个 key 在写入前的多次修改会合并为最后一次；读取时优先返回尚未写入的数据。
+ */
+final class WriteBehindStore implements CacheStore {
+    private final CacheStore delegate;
+    private final ExecutorService writer;
+    /**
+     * 等待写入的操作，key → 最后一次修改
+     */
+    private Map<String, Op> pending = new LinkedHashMap<>();
+    /**
+     * 正在写入的一批操作
+     */
+    private Map<String, Op> inFlight = Collections.emptyMap();
+    private boolean draining;
+
+    WriteBehindStore(CacheStore delegate) {
+        this.delegate = delegate;
+        writer = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "ACache-writer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    CacheStore getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void put(String key, byte[] value, int saveTime) {
+        long expireAt = saveTime == -1 ? 0 : System.currentTimeMillis() + saveTime * 1000L;
+        enqueue(key, new Op(value.clone(), expireAt));
+    }
+
+    @Override
+    public Record get(String key) {
+        Op op = pendingOp(key);
+        if (op != null) {
+            // 复制一份，调用方修改返回的数据不会影响尚未写入的数据
+            return op.isRemove() || op.isDue(System.currentTimeMillis())
+                    ? null : new Record(op.value.clone(), op.expireAt);
+        }
+        return delegate.get(key);
+    }
+
+    @Override
+    public InputStream openInputStream(String key) throws IOException {
+        Op op = pendingOp(key);
+        if (op != null) {
+            return op.isRemove() || op.isDue(System.currentTimeMillis())
+                    ? null : new ByteArrayInputStream(op.value);
+        }
+        return delegate.openInputStream(key);
+    }
+
+    /**
+     * 流式写入直接写到底层存储，写入前先等待队列中的修改落盘，保证先后顺序
+     */
+    @Override
+    public OutputStream openOutputStream(String key, int saveTime) throws IOException {
+        awaitIdle(0);
+        return delegate.openOutputStream(key, saveTime);
+    }
+
+    @Override
+    public ByteBuffer mapReadOnly(String key) throws IOException {
+        Op op = pendingOp(key);
+        if (op != null) {
+            return op.isRemove() || op.isDue(System.currentTimeMillis())
+                    ? null : ByteBuffer.wrap(op.value).asReadOnlyBuffer();
+        }
+        return delegate.mapReadOnly(key);
+    }
+
+    @Override
+    public File file(String key) {
+        awaitIdle(0);
+        return delegate.file(key);
+    }
+
+    /**
+     * 写回模式下删除是异步的，总是返回 true
+     */
+    @Override
+    public boolean remove(String key) {
+        enqueue(key, Op.REMOVE);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        synchronized (this) {
+            pending.clear();
+        }
+        awaitIdle(0);
+        delegate.clear();
+    }
+
+    @Override
+    public void sync() {
+        awaitIdle(0);
+        delegate.sync();
+    }
+
+    /**
+     * 只清理已写入底层存储的数据，队列中的数据在读取时判断是否过期
+     */
+    @Override
+    public int sweep(int maxCount) {
+        return delegate.sweep(maxCount);
+    }
+
+    /**
+     * 等待队列中的修改全部写入底层存储
+     *
+     * @param timeoutMillis 超时时间，0 表示一直等待
+     * @return 是否已全部写入
+     */
+    synchronized boolean awaitIdle(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        boolean interrupted = false;
+        try {
+            while (draining) {
+                long wait = 0;
+                if (timeoutMillis > 0) {
+                    wait = deadline - System.currentTimeMillis();
+                    if (wait <= 0) {
+                        return false;
+                    }
+                }
+                try {
+                    wait(wait);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            return true;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized Op pendingOp(String key) {
+        Op op = pending.get(key);
+        return op != null ? op : inFlight.get(key);
+    }
+
+    private void enqueue(String key, Op op) {
+        synchronized (this) {
+            // 重新放到队尾，保持与修改顺序一致
+            pending.remove(key);
+            pending.put(key, op);
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        });
+    }
+
+    private void drain() {
+        while (true) {
+            Map<String, Op> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    inFlight = Collections.emptyMap();
+                    draining = false;
+                    notifyAll();
+                    return;
+                }
+                batch = pending;
+                inFlight = batch;
+                pending = new LinkedHashMap<>();
+            }
+            for (Map.Entry<String, Op> item : batch.entrySet()) {
+                Op op = item.getValue();
+                try {
+                    if (op.isRemove()) {
+                        delegate.remove(item.getKey());
+                    } else if (op.expireAt == 0) {
+                        delegate.put(item.getKey(), op.value, -1);
+                    } else {
+                        // 按入队时算出的过期时间写入剩余的保存时间，与队列中读到的数据同时过期
+                        long remain = op.expireAt - System.currentTimeMillis();
+                        if (remain <= 0) {
+                            delegate.remove(item.getKey());
+                        } else {
+                            delegate.put(item.getKey(), op.value, (int) ((remain + 999) / 1000));
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+            delegate.sync();
+        }
+    }
+
+    private static final class Op {
+        static final Op REMOVE = new Op(null, 0);
+
+        final byte[] value;
+        /**
+         * 过期时间，0 表示不过期
+         */
+        final long expireAt;
+
+        Op(byte[] value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        boolean isRemove() {
+            return value == null;
+        }
+
+        boolean isDue(long now) {
+            return expireAt != 0 && now > expireAt;
+        }
+    }
+}